@@ -0,0 +1,94 @@
+package collection.persistent.benchmark;
+
+import collection.persistent.BankersQueue;
+import collection.persistent.ChunkedBankersQueue;
+import collection.persistent.ChunkedRealTimeQueue;
+import collection.persistent.Queue;
+import collection.persistent.RealTimeQueue;
+import collection.persistent.lazy.Cell;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Forcing lazy streams of {@value #COUNT} cells, measured per cell.
+ * <p/>
+ * Run with <code>-prof gc</code> to see bytes allocated per cell.
+ * The queue benchmarks compare the queues on streams of single values
+ * with the queues on chunked streams.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CellBenchmark {
+  static final int COUNT = 1000;
+  Cell<Integer> list;
+
+  @Setup
+  public void setup() {
+    for (int n = 0; n < COUNT / 2; n++) {
+      list = new Cell<Integer>(n, list);
+    }
+  }
+
+  /** Walk the concatenation of a list with its lazy reversal. */
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public int concat() {
+    int sum = 0;
+    for (Cell<Integer> c = Cell.concat(list, Cell.reverse(list)); c != null; c = c.tail()) {
+      sum += c.value();
+    }
+    return sum;
+  }
+
+  /** Push and then pop all elements through a queue, which rotates. */
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public int queue() {
+    return drain(new BankersQueue<Integer>());
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public int chunkedQueue() {
+    return drain(new ChunkedBankersQueue<Integer>());
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public int realTimeQueue() {
+    return drain(new RealTimeQueue<Integer>());
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public int chunkedRealTimeQueue() {
+    return drain(new ChunkedRealTimeQueue<Integer>());
+  }
+
+  private static int drain(Queue<Integer> queue) {
+    for (int n = 0; n < COUNT; n++) {
+      queue = queue.push(n);
+    }
+    int sum = 0;
+    while (!queue.isEmpty()) {
+      sum += queue.peek();
+      queue = queue.pop();
+    }
+    return sum;
+  }
+}
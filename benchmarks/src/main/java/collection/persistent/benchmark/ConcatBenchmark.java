@@ -0,0 +1,61 @@
+package collection.persistent.benchmark;
+
+import collection.persistent.fingertree.FingerTree;
+import collection.persistent.fingertree.Measured;
+import collection.persistent.fingertree.Monoid.IntegerSum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concatenation of two generic finger trees of the given size each,
+ * so that the middle elements are grouped into nodes on every level
+ * of the deeper tree.
+ * <p/>
+ * Run with <code>-prof gc</code> to see bytes allocated per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ConcatBenchmark {
+  static final Item ITEM = new Item();
+  @Param({"1000", "1000000"})
+  int size;
+  FingerTree<IntegerSum, Item> a;
+  FingerTree<IntegerSum, Item> b;
+
+  @Setup
+  public void setup() {
+    a = new FingerTree.Empty<IntegerSum, Item>(IntegerSum.UNIT);
+    b = new FingerTree.Empty<IntegerSum, Item>(IntegerSum.UNIT);
+    for (int n = 0; n < size; n++) {
+      a = a.snoc(ITEM);
+      b = b.cons(ITEM);
+    }
+  }
+
+  @Benchmark
+  public Object concat() {
+    return FingerTree.concat(a, b);
+  }
+
+  static final class Item implements Measured<IntegerSum> {
+    @Override
+    public IntegerSum measure() {
+      return IntegerSum.valueOf(1);
+    }
+  }
+}
@@ -0,0 +1,159 @@
+package collection.persistent.benchmark;
+
+import collection.persistent.BankersDeque;
+import collection.persistent.Deque;
+import collection.persistent.FingerTreeSeq;
+import collection.persistent.RealTimeDeque;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The persistent deques compared to {@link FingerTreeSeq} used as
+ * a deque, on a deque of the given size, and on a stream of
+ * {@value #COUNT} elements through a deque used as a queue.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DequeBenchmark {
+  static final int COUNT = 1000;
+
+  /** Deque implementations adapted to the same set of operations. */
+  public enum Impl {
+    BANKERS_DEQUE {
+      @Override
+      Object empty() {
+        return new BankersDeque<Integer>();
+      }
+    },
+    REAL_TIME_DEQUE {
+      @Override
+      Object empty() {
+        return new RealTimeDeque<Integer>();
+      }
+    },
+    FINGER_TREE_SEQ {
+      @Override
+      Object empty() {
+        return new FingerTreeSeq<Integer>();
+      }
+
+      @Override
+      Object cons(Object deque, Integer v) {
+        return ((FingerTreeSeq<Integer>) deque).cons(v);
+      }
+
+      @Override
+      Object snoc(Object deque, Integer v) {
+        return ((FingerTreeSeq<Integer>) deque).snoc(v);
+      }
+
+      @Override
+      Integer head(Object deque) {
+        return ((FingerTreeSeq<Integer>) deque).head();
+      }
+
+      @Override
+      Object tail(Object deque) {
+        return ((FingerTreeSeq<Integer>) deque).tail();
+      }
+
+      @Override
+      int size(Object deque) {
+        return ((FingerTreeSeq<Integer>) deque).size();
+      }
+    };
+
+    abstract Object empty();
+
+    Object cons(Object deque, Integer v) {
+      return ((Deque<Integer>) deque).cons(v);
+    }
+
+    Object snoc(Object deque, Integer v) {
+      return ((Deque<Integer>) deque).snoc(v);
+    }
+
+    Integer head(Object deque) {
+      return ((Deque<Integer>) deque).head();
+    }
+
+    Object tail(Object deque) {
+      return ((Deque<Integer>) deque).tail();
+    }
+
+    int size(Object deque) {
+      return ((Deque<Integer>) deque).size();
+    }
+  }
+
+  @Param({"BANKERS_DEQUE", "REAL_TIME_DEQUE", "FINGER_TREE_SEQ"})
+  Impl impl;
+  @Param({"1000", "100000"})
+  int size;
+  Object deque;
+
+  @Setup
+  public void setup() {
+    deque = impl.empty();
+    for (int n = 0; n < size; n++) {
+      deque = n % 2 == 0 ? impl.snoc(deque, n) : impl.cons(deque, n);
+    }
+    // Force the lazy streams, if any.
+    Object d = deque;
+    while (impl.size(d) > 0) {
+      d = impl.tail(d);
+    }
+  }
+
+  @Benchmark
+  public Object cons() {
+    return impl.cons(deque, 1);
+  }
+
+  @Benchmark
+  public Object snoc() {
+    return impl.snoc(deque, 1);
+  }
+
+  @Benchmark
+  public Integer head() {
+    return impl.head(deque);
+  }
+
+  @Benchmark
+  public Object tail() {
+    return impl.tail(deque);
+  }
+
+  /** Snoc and then tail all elements through an empty deque. */
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public int queue() {
+    Object d = impl.empty();
+    for (int n = 0; n < COUNT; n++) {
+      d = impl.snoc(d, n);
+    }
+    int sum = 0;
+    while (impl.size(d) > 0) {
+      sum += impl.head(d);
+      d = impl.tail(d);
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,75 @@
+package collection.persistent.benchmark;
+
+import java.util.HashSet;
+import java.util.Random;
+
+/** Key distributions to run map benchmarks with. */
+public enum Keys {
+  /** Consecutive integers starting from zero. */
+  SEQUENTIAL {
+    @Override
+    int key(Random random, int index) {
+      return index;
+    }
+  },
+  /** Uniformly distributed random integers. */
+  RANDOM {
+    @Override
+    int key(Random random, int index) {
+      return random.nextInt();
+    }
+  },
+  /**
+   * Multiples of 32, that is integers which have the lowest
+   * five bits equal, the worst case for tries that branch on
+   * the lowest bits of hash codes first.
+   */
+  STRIDED {
+    @Override
+    int key(Random random, int index) {
+      return index << 5;
+    }
+  };
+
+  abstract int key(Random random, int index);
+
+  /**
+   * Generate distinct keys.
+   *
+   * @param size Number of keys to generate.
+   * @param seed Random seed to make generated keys reproducible.
+   * @return An array of distinct keys.
+   */
+  public Integer[] generate(int size, long seed) {
+    Random random = new Random(seed);
+    HashSet<Integer> seen = new HashSet<Integer>();
+    Integer[] keys = new Integer[size];
+    int index = 0;
+    for (int n = 0; index < size; n++) {
+      Integer key = key(random, n);
+      if (seen.add(key)) {
+        keys[index++] = key;
+      }
+    }
+    return keys;
+  }
+
+  /**
+   * Shuffle keys in place so that lookups in benchmarks
+   * do not follow the insertion order.
+   *
+   * @param keys Keys to shuffle.
+   * @param seed Random seed to make shuffling reproducible.
+   * @return The same array of keys.
+   */
+  public static Integer[] shuffle(Integer[] keys, long seed) {
+    Random random = new Random(seed);
+    for (int n = keys.length - 1; n > 0; n--) {
+      int m = random.nextInt(n + 1);
+      Integer t = keys[n];
+      keys[n] = keys[m];
+      keys[m] = t;
+    }
+    return keys;
+  }
+}
@@ -0,0 +1,111 @@
+package collection.persistent.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single operations on a map of the given size.
+ * <p/>
+ * Run with <code>-prof gc</code> to see allocation rate
+ * and bytes allocated per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MapBenchmark {
+  @Param({"ARRAY_TRIE", "PATRICIA_TRIE", "RED_BLACK_TREE",
+      "JAVA_HASH_MAP", "JAVA_TREE_MAP", "FJ_TREE_MAP"})
+  MapImpl impl;
+  @Param({"SEQUENTIAL", "RANDOM", "STRIDED"})
+  Keys keys;
+  @Param({"1000", "10000", "100000", "1000000", "10000000"})
+  int size;
+  /** Keys present in the map in random order. */
+  Integer[] present;
+  /** Keys absent from the map. */
+  Integer[] absent;
+  Object map;
+  int index;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    Integer[] all = keys.generate(size * 2, 1);
+    present = new Integer[size];
+    absent = new Integer[size];
+    System.arraycopy(all, 0, present, 0, size);
+    System.arraycopy(all, size, absent, 0, size);
+    map = impl.build(present);
+    Keys.shuffle(present, 2);
+    Keys.shuffle(absent, 3);
+  }
+
+  Integer next(Integer[] keys) {
+    int n = index;
+    index = n + 1 == keys.length ? 0 : n + 1;
+    return keys[n];
+  }
+
+  @Benchmark
+  public Object getPresent() {
+    return impl.get(map, next(present));
+  }
+
+  @Benchmark
+  public Object getAbsent() {
+    return impl.get(map, next(absent));
+  }
+
+  /** Replace value of an existing key. */
+  @Benchmark
+  public Object replace() {
+    Integer key = next(present);
+    return impl.put(map, key, key);
+  }
+
+  /** Insert a new key. */
+  @Benchmark
+  public Object insert() {
+    Integer key = next(absent);
+    Object result = impl.put(map, key, key);
+    if (impl.mutable()) {
+      impl.remove(map, key);
+    }
+    return result;
+  }
+
+  /** Remove an existing key. */
+  @Benchmark
+  public Object remove() {
+    Integer key = next(present);
+    Object result = impl.remove(map, key);
+    if (impl.mutable()) {
+      impl.put(map, key, key);
+    }
+    return result;
+  }
+
+  @Benchmark
+  public long iterate() {
+    return impl.iterate(map);
+  }
+
+  @Benchmark
+  public long traverse() {
+    return impl.traverse(map);
+  }
+}
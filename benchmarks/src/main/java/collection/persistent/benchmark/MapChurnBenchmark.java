@@ -0,0 +1,99 @@
+package collection.persistent.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A long-running put/remove workload. Every operation removes
+ * a random key from the map and inserts a key which is not in the map,
+ * so the size of the map stays constant. The keys are drawn from a pool
+ * of twice the map size, the removed keys go back to the pool.
+ * The map is kept between iterations, so with <code>-prof gc</code>
+ * the iterations show whether the time and the memory per operation
+ * stay flat over time, and the <code>depth</code> counter shows whether
+ * the lookup depth does, for the maps which report it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 20, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MapChurnBenchmark {
+  @Param({"ARRAY_TRIE", "PATRICIA_TRIE", "RED_BLACK_TREE",
+      "JAVA_HASH_MAP", "JAVA_TREE_MAP", "FJ_TREE_MAP"})
+  MapImpl impl;
+  @Param({"SEQUENTIAL", "RANDOM", "STRIDED"})
+  Keys keys;
+  @Param({"1000", "100000", "1000000"})
+  int size;
+  Integer[] live;
+  Integer[] spare;
+  int next;
+  Random random;
+  Object map;
+  long ops;
+
+  /**
+   * The depth of the map, sampled every {@value Depth#SAMPLE} operations.
+   * JMH sums events over the measurement iterations, so every sample is
+   * divided by the number of iterations to report the mean depth.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Depth {
+    static final int SAMPLE = 1 << 16;
+    int iterations;
+    public double depth;
+
+    @Setup(Level.Trial)
+    public void setup(BenchmarkParams params) {
+      iterations = params.getMeasurement().getCount();
+    }
+
+    void sample(int value) {
+      depth = (double) value / iterations;
+    }
+  }
+
+  @Setup(Level.Trial)
+  public void setup() {
+    Integer[] all = keys.generate(size * 2, 1);
+    live = new Integer[size];
+    spare = new Integer[size];
+    System.arraycopy(all, 0, live, 0, size);
+    System.arraycopy(all, size, spare, 0, size);
+    random = new Random(2);
+    map = impl.build(live);
+  }
+
+  @Benchmark
+  public Object churn(Depth depth) {
+    int index = random.nextInt(live.length);
+    Integer removed = live[index];
+    Integer key = spare[next];
+    map = impl.put(impl.remove(map, removed), key, key);
+    live[index] = key;
+    spare[next] = removed;
+    next = (next + 1) % spare.length;
+    if (ops++ % Depth.SAMPLE == 0) {
+      depth.sample(impl.depth(map));
+    }
+    return map;
+  }
+}
@@ -0,0 +1,222 @@
+package collection.persistent.benchmark;
+
+import collection.persistent.ArrayTrieHashMap;
+import collection.persistent.Listable;
+import collection.persistent.Map;
+import collection.persistent.PatriciaTrieHashMap;
+import collection.persistent.RedBlackTreeMap;
+import fj.Ord;
+import fj.P2;
+import fj.data.TreeMap;
+
+import java.util.HashMap;
+
+/**
+ * Map implementations to run benchmarks with, both persistent and
+ * the baselines. Every implementation is adapted to the same set
+ * of operations on an opaque map instance.
+ * <p/>
+ * Please note that the mutable baselines are updated in place,
+ * so the benchmarks undo every structural update they make to keep
+ * the map in the same state across invocations.
+ */
+public enum MapImpl {
+  ARRAY_TRIE {
+    @Override
+    Object empty() {
+      return new ArrayTrieHashMap<Integer, Integer>();
+    }
+
+    @Override
+    int depth(Object map) {
+      return ((ArrayTrieHashMap<Integer, Integer>) map).depth();
+    }
+  },
+  PATRICIA_TRIE {
+    @Override
+    Object empty() {
+      return new PatriciaTrieHashMap<Integer, Integer>();
+    }
+  },
+  RED_BLACK_TREE {
+    @Override
+    Object empty() {
+      return new RedBlackTreeMap<Integer, Integer>();
+    }
+  },
+  JAVA_HASH_MAP {
+    @Override
+    Object empty() {
+      return new HashMap<Integer, Integer>();
+    }
+
+    @Override
+    Object get(Object map, Integer key) {
+      return ((HashMap<Integer, Integer>) map).get(key);
+    }
+
+    @Override
+    Object put(Object map, Integer key, Integer value) {
+      ((HashMap<Integer, Integer>) map).put(key, value);
+      return map;
+    }
+
+    @Override
+    Object remove(Object map, Integer key) {
+      ((HashMap<Integer, Integer>) map).remove(key);
+      return map;
+    }
+
+    @Override
+    boolean mutable() {
+      return true;
+    }
+
+    @Override
+    long iterate(Object map) {
+      long sum = 0;
+      for (java.util.Map.Entry<Integer, Integer> entry : ((HashMap<Integer, Integer>) map).entrySet()) {
+        sum += entry.getValue();
+      }
+      return sum;
+    }
+
+    @Override
+    long traverse(Object map) {
+      return iterate(map);
+    }
+  },
+  JAVA_TREE_MAP {
+    @Override
+    Object empty() {
+      return new java.util.TreeMap<Integer, Integer>();
+    }
+
+    @Override
+    Object get(Object map, Integer key) {
+      return ((java.util.TreeMap<Integer, Integer>) map).get(key);
+    }
+
+    @Override
+    Object put(Object map, Integer key, Integer value) {
+      ((java.util.TreeMap<Integer, Integer>) map).put(key, value);
+      return map;
+    }
+
+    @Override
+    Object remove(Object map, Integer key) {
+      ((java.util.TreeMap<Integer, Integer>) map).remove(key);
+      return map;
+    }
+
+    @Override
+    boolean mutable() {
+      return true;
+    }
+
+    @Override
+    long iterate(Object map) {
+      long sum = 0;
+      for (java.util.Map.Entry<Integer, Integer> entry : ((java.util.TreeMap<Integer, Integer>) map).entrySet()) {
+        sum += entry.getValue();
+      }
+      return sum;
+    }
+
+    @Override
+    long traverse(Object map) {
+      return iterate(map);
+    }
+  },
+  FJ_TREE_MAP {
+    @Override
+    Object empty() {
+      return TreeMap.<Integer, Integer>empty(Ord.intOrd);
+    }
+
+    @Override
+    Object get(Object map, Integer key) {
+      return ((TreeMap<Integer, Integer>) map).get(key).toNull();
+    }
+
+    @Override
+    Object put(Object map, Integer key, Integer value) {
+      return ((TreeMap<Integer, Integer>) map).set(key, value);
+    }
+
+    @Override
+    Object remove(Object map, Integer key) {
+      return ((TreeMap<Integer, Integer>) map).delete(key);
+    }
+
+    @Override
+    long iterate(Object map) {
+      long sum = 0;
+      for (P2<Integer, Integer> entry : (TreeMap<Integer, Integer>) map) {
+        sum += entry._2();
+      }
+      return sum;
+    }
+
+    @Override
+    long traverse(Object map) {
+      return iterate(map);
+    }
+  };
+
+  /** @return New empty map instance. */
+  abstract Object empty();
+
+  Object get(Object map, Integer key) {
+    return ((Map<Integer, Integer>) map).get(key);
+  }
+
+  /** @return Updated map, the same instance for mutable maps. */
+  Object put(Object map, Integer key, Integer value) {
+    return ((Map<Integer, Integer>) map).put(key, value);
+  }
+
+  /** @return Updated map, the same instance for mutable maps. */
+  Object remove(Object map, Integer key) {
+    return ((Map<Integer, Integer>) map).remove(key);
+  }
+
+  /** @return Whether updates modify map in place. */
+  boolean mutable() {
+    return false;
+  }
+
+  /** @return The depth of the map, or zero if the implementation does not report it. */
+  int depth(Object map) {
+    return 0;
+  }
+
+  /** Visit every map entry with an iterator. */
+  long iterate(Object map) {
+    long sum = 0;
+    for (Map.Entry<Integer, Integer> entry : (Map<Integer, Integer>) map) {
+      sum += entry.getValue();
+    }
+    return sum;
+  }
+
+  /** Visit every map entry with a {@link Listable.List list}. */
+  long traverse(Object map) {
+    long sum = 0;
+    Listable.List<Map.Entry<Integer, Integer>> list = ((Map<Integer, Integer>) map).list();
+    while (list != null) {
+      sum += list.head().getValue();
+      list = list.tail();
+    }
+    return sum;
+  }
+
+  /** @return New map with the specified keys mapped to themselves. */
+  Object build(Integer[] keys) {
+    Object map = empty();
+    for (Integer key : keys) {
+      map = put(map, key, key);
+    }
+    return map;
+  }
+}
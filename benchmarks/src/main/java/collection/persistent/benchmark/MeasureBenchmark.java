@@ -0,0 +1,85 @@
+package collection.persistent.benchmark;
+
+import collection.persistent.FingerTreeSeq;
+import collection.persistent.fingertree.FingerTree;
+import collection.persistent.fingertree.Measured;
+import collection.persistent.fingertree.Monoid.IntegerSum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building a sequence of {@value #COUNT} elements one cons or snoc at
+ * a time, with the size kept in the boxed {@link IntegerSum} measures
+ * of the generic finger tree compared to the primitive int sizes of
+ * {@link FingerTreeSeq}.
+ * <p/>
+ * Run with <code>-prof gc</code> to see bytes allocated per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MeasureBenchmark {
+  static final int COUNT = 1000;
+  static final IntegerSum ONE = IntegerSum.valueOf(1);
+  static final Item ITEM = new Item();
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public Object genericCons() {
+    FingerTree<IntegerSum, Item> tree = new FingerTree.Empty<IntegerSum, Item>(IntegerSum.UNIT);
+    for (int n = 0; n < COUNT; n++) {
+      tree = tree.cons(ITEM);
+    }
+    return tree;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public Object genericSnoc() {
+    FingerTree<IntegerSum, Item> tree = new FingerTree.Empty<IntegerSum, Item>(IntegerSum.UNIT);
+    for (int n = 0; n < COUNT; n++) {
+      tree = tree.snoc(ITEM);
+    }
+    return tree;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public Object seqCons() {
+    FingerTreeSeq<Object> seq = new FingerTreeSeq<Object>();
+    for (int n = 0; n < COUNT; n++) {
+      seq = seq.cons(ITEM);
+    }
+    return seq;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public Object seqSnoc() {
+    FingerTreeSeq<Object> seq = new FingerTreeSeq<Object>();
+    for (int n = 0; n < COUNT; n++) {
+      seq = seq.snoc(ITEM);
+    }
+    return seq;
+  }
+
+  static final class Item implements Measured<IntegerSum> {
+    @Override
+    public IntegerSum measure() {
+      return ONE;
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package collection.persistent.benchmark;
+
+import collection.persistent.Map;
+import collection.persistent.PatriciaTrieHashMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merging two snapshots of the same map, each of them updated with
+ * a number of its own changes, with the structural union compared
+ * to putting all entries of one snapshot into the other.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PatriciaMergeBenchmark {
+  @Param({"RANDOM", "STRIDED"})
+  Keys keys;
+  @Param({"100000"})
+  int size;
+  @Param({"10", "1000"})
+  int changes;
+  PatriciaTrieHashMap<Integer, Integer> a;
+  PatriciaTrieHashMap<Integer, Integer> b;
+
+  @Setup
+  public void setup() {
+    Integer[] all = keys.generate(size + changes * 2, 1);
+    PatriciaTrieHashMap<Integer, Integer> base = new PatriciaTrieHashMap<Integer, Integer>();
+    for (int n = 0; n < size; n++) {
+      base = base.put(all[n], all[n]);
+    }
+    a = base;
+    b = base;
+    for (int n = 0; n < changes; n++) {
+      a = a.put(all[size + n], n);
+      b = b.put(all[size + changes + n], n);
+    }
+  }
+
+  @Benchmark
+  public Object union() {
+    return a.union(b);
+  }
+
+  @Benchmark
+  public Object putAll() {
+    PatriciaTrieHashMap<Integer, Integer> result = a;
+    for (Map.Entry<Integer, Integer> entry : b) {
+      result = result.put(entry.getKey(), entry.getValue());
+    }
+    return result;
+  }
+}
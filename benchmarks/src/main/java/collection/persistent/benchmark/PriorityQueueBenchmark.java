@@ -0,0 +1,112 @@
+package collection.persistent.benchmark;
+
+import collection.persistent.PriorityQueue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persistent priority queue operations on a queue of the given size
+ * compared to a persistent sorted array, which copies the array on
+ * every insertion and shares it on every removal.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PriorityQueueBenchmark {
+  @Param({"1000", "100000"})
+  int size;
+  Random random;
+  PriorityQueue<Integer> queue;
+  SortedArrayQueue array;
+
+  @Setup
+  public void setup() {
+    random = new Random(1);
+    queue = new PriorityQueue<Integer>();
+    int[] priorities = new int[size];
+    for (int n = 0; n < size; n++) {
+      int priority = random.nextInt();
+      queue = queue.push(priority, n);
+      priorities[n] = priority;
+    }
+    Arrays.sort(priorities);
+    array = new SortedArrayQueue(priorities, 0);
+  }
+
+  @Benchmark
+  public Object queuePush() {
+    return queue.push(random.nextInt(), 0);
+  }
+
+  @Benchmark
+  public Object queuePeek() {
+    return queue.peek();
+  }
+
+  @Benchmark
+  public Object queuePop() {
+    return queue.pop();
+  }
+
+  @Benchmark
+  public Object arrayPush() {
+    return array.push(random.nextInt());
+  }
+
+  @Benchmark
+  public int arrayPeek() {
+    return array.peek();
+  }
+
+  @Benchmark
+  public Object arrayPop() {
+    return array.pop();
+  }
+
+  /** The baseline, a persistent queue of priorities in a sorted array. */
+  static final class SortedArrayQueue {
+    final int[] priorities;
+    final int offset;
+
+    SortedArrayQueue(int[] priorities, int offset) {
+      this.priorities = priorities;
+      this.offset = offset;
+    }
+
+    SortedArrayQueue push(int priority) {
+      int index = Arrays.binarySearch(priorities, offset, priorities.length, priority);
+      if (index < 0) {
+        index = -index - 1;
+      }
+      int[] result = new int[priorities.length - offset + 1];
+      System.arraycopy(priorities, offset, result, 0, index - offset);
+      result[index - offset] = priority;
+      System.arraycopy(priorities, index, result, index - offset + 1, priorities.length - index);
+      return new SortedArrayQueue(result, 0);
+    }
+
+    int peek() {
+      return priorities[offset];
+    }
+
+    SortedArrayQueue pop() {
+      return new SortedArrayQueue(priorities, offset + 1);
+    }
+  }
+}
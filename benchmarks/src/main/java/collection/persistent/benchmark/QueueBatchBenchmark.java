@@ -0,0 +1,127 @@
+package collection.persistent.benchmark;
+
+import collection.persistent.BankersQueue;
+import collection.persistent.BatchedQueue;
+import collection.persistent.ChunkedBankersQueue;
+import collection.persistent.ChunkedRealTimeQueue;
+import collection.persistent.Queue;
+import collection.persistent.RealTimeQueue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushing a batch of {@value #BATCH} elements to a queue and draining
+ * it in a batch, element by element compared to the batch operations,
+ * measured per element.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class QueueBatchBenchmark {
+  static final int BATCH = 256;
+
+  /** Queue implementations to run benchmarks with. */
+  public enum Impl {
+    BATCHED {
+      @Override
+      Queue<Integer> create() {
+        return new BatchedQueue<Integer>();
+      }
+    },
+    BANKERS {
+      @Override
+      Queue<Integer> create() {
+        return new BankersQueue<Integer>();
+      }
+    },
+    REAL_TIME {
+      @Override
+      Queue<Integer> create() {
+        return new RealTimeQueue<Integer>();
+      }
+    },
+    CHUNKED_BANKERS {
+      @Override
+      Queue<Integer> create() {
+        return new ChunkedBankersQueue<Integer>();
+      }
+    },
+    CHUNKED_REAL_TIME {
+      @Override
+      Queue<Integer> create() {
+        return new ChunkedRealTimeQueue<Integer>();
+      }
+    };
+
+    abstract Queue<Integer> create();
+  }
+
+  @Param({"BATCHED", "BANKERS", "REAL_TIME", "CHUNKED_BANKERS", "CHUNKED_REAL_TIME"})
+  Impl impl;
+  Integer[] values;
+  Queue<Integer> queue;
+  List<Integer> list;
+
+  @Setup
+  public void setup() {
+    values = new Integer[BATCH];
+    for (int n = 0; n < BATCH; n++) {
+      values[n] = n;
+    }
+    queue = impl.create().pushAll(Arrays.asList(values));
+    list = new ArrayList<Integer>(BATCH);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public Object push() {
+    Queue<Integer> q = queue;
+    for (Integer v : values) {
+      q = q.push(v);
+    }
+    return q;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public Object pushAll() {
+    return queue.pushAll(values);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public Object pop() {
+    list.clear();
+    Queue<Integer> q = queue;
+    for (int n = 0; n < BATCH && !q.isEmpty(); n++) {
+      list.add(q.peek());
+      q = q.pop();
+    }
+    return q;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public Object drainTo() {
+    list.clear();
+    return queue.drainTo(list, BATCH);
+  }
+}
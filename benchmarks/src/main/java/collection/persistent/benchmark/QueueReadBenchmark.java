@@ -0,0 +1,70 @@
+package collection.persistent.benchmark;
+
+import collection.persistent.BankersQueue;
+import collection.persistent.Queue;
+import collection.persistent.RealTimeQueue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Many threads draining the same queue snapshot, whose lazy tails
+ * are forced once and then only read.
+ * <p/>
+ * Run with <code>-t 1</code>, <code>-t 2</code>, <code>-t 4</code> and so
+ * on to see how the throughput scales with the number of reader threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueueReadBenchmark {
+  @Param({"1000"})
+  int size;
+  Queue<Integer> bankers;
+  Queue<Integer> realTime;
+
+  @Setup
+  public void setup() {
+    bankers = new BankersQueue<Integer>();
+    realTime = new RealTimeQueue<Integer>();
+    for (int n = 0; n < size; n++) {
+      bankers = bankers.push(n);
+      realTime = realTime.push(n);
+    }
+    // Force the lazy tails of the snapshots.
+    drain(bankers);
+    drain(realTime);
+  }
+
+  @Benchmark
+  public int bankersDrain() {
+    return drain(bankers);
+  }
+
+  @Benchmark
+  public int realTimeDrain() {
+    return drain(realTime);
+  }
+
+  static int drain(Queue<Integer> queue) {
+    int sum = 0;
+    while (!queue.isEmpty()) {
+      sum += queue.peek();
+      queue = queue.pop();
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,85 @@
+package collection.persistent.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single operations on a sequence of the given size.
+ * <p/>
+ * Run with <code>-prof gc</code> to see allocation rate
+ * and bytes allocated per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SeqBenchmark {
+  @Param({"FINGER_TREE_SEQ", "FOREST_SEQ", "FJ_SEQ", "FJ_LIST"})
+  SeqImpl impl;
+  @Param({"1000", "10000", "100000", "1000000", "10000000"})
+  int size;
+  Object seq;
+  int[] indexes;
+  int index;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    seq = impl.build(size);
+    Random random = new Random(1);
+    indexes = new int[1024];
+    for (int n = 0; n < indexes.length; n++) {
+      indexes[n] = random.nextInt(size);
+    }
+  }
+
+  int next() {
+    int n = index;
+    index = (n + 1) & (indexes.length - 1);
+    return indexes[n];
+  }
+
+  @Benchmark
+  public Object cons() {
+    return impl.cons(seq, 1);
+  }
+
+  @Benchmark
+  public Object snoc() {
+    return impl.snoc(seq, 1);
+  }
+
+  @Benchmark
+  public Object get() {
+    return impl.get(seq, next());
+  }
+
+  @Benchmark
+  public Object set() {
+    return impl.set(seq, next(), 1);
+  }
+
+  @Benchmark
+  public Object tail() {
+    return impl.tail(seq);
+  }
+
+  @Benchmark
+  public Object concat() {
+    return impl.concat(seq, seq);
+  }
+}
@@ -0,0 +1,71 @@
+package collection.persistent.benchmark;
+
+import collection.persistent.FingerTreeSeq;
+import collection.persistent.ForestSeq;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building a sequence of the given size from an array at once
+ * compared to a loop of single element insertions.
+ * <p/>
+ * Run with <code>-prof gc</code> to see bytes allocated per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SeqBuildBenchmark {
+  @Param({"1000", "1000000"})
+  int size;
+  Integer[] elements;
+
+  @Setup
+  public void setup() {
+    elements = new Integer[size];
+    for (int n = 0; n < size; n++) {
+      elements[n] = n;
+    }
+  }
+
+  @Benchmark
+  public Object fingerTreeFromArray() {
+    return FingerTreeSeq.fromArray(elements);
+  }
+
+  @Benchmark
+  public Object fingerTreeSnoc() {
+    FingerTreeSeq<Integer> seq = new FingerTreeSeq<Integer>();
+    for (Integer v : elements) {
+      seq = seq.snoc(v);
+    }
+    return seq;
+  }
+
+  @Benchmark
+  public Object forestFromArray() {
+    return ForestSeq.fromArray(elements);
+  }
+
+  @Benchmark
+  public Object forestCons() {
+    ForestSeq<Integer> seq = new ForestSeq<Integer>();
+    for (int n = elements.length - 1; n >= 0; n--) {
+      seq = seq.cons(elements[n]);
+    }
+    return seq;
+  }
+}
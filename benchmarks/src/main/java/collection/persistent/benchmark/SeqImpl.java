@@ -0,0 +1,153 @@
+package collection.persistent.benchmark;
+
+import collection.persistent.FingerTreeSeq;
+import collection.persistent.ForestSeq;
+import collection.persistent.Seq;
+
+/**
+ * Sequence implementations to run benchmarks with, both persistent
+ * and the baselines. Every implementation is adapted to the same set
+ * of operations on an opaque sequence instance. An operation which
+ * is not supported by an implementation throws
+ * {@link UnsupportedOperationException}.
+ */
+public enum SeqImpl {
+  FINGER_TREE_SEQ {
+    @Override
+    Object empty() {
+      return new FingerTreeSeq<Integer>();
+    }
+  },
+  FOREST_SEQ {
+    @Override
+    Object empty() {
+      return new ForestSeq<Integer>();
+    }
+
+    @Override
+    Object build(int size) {
+      Object seq = empty();
+      for (int n = size - 1; n >= 0; n--) {
+        seq = cons(seq, n);
+      }
+      return seq;
+    }
+  },
+  FJ_SEQ {
+    @Override
+    Object empty() {
+      return fj.data.Seq.<Integer>empty();
+    }
+
+    @Override
+    Object cons(Object seq, Integer v) {
+      return ((fj.data.Seq<Integer>) seq).cons(v);
+    }
+
+    @Override
+    Object snoc(Object seq, Integer v) {
+      return ((fj.data.Seq<Integer>) seq).snoc(v);
+    }
+
+    @Override
+    Object get(Object seq, int index) {
+      return ((fj.data.Seq<Integer>) seq).index(index);
+    }
+
+    @Override
+    Object set(Object seq, int index, Integer v) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    Object tail(Object seq) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    Object concat(Object a, Object b) {
+      return ((fj.data.Seq<Integer>) a).append((fj.data.Seq<Integer>) b);
+    }
+  },
+  FJ_LIST {
+    @Override
+    Object empty() {
+      return fj.data.List.<Integer>nil();
+    }
+
+    @Override
+    Object build(int size) {
+      Object seq = empty();
+      for (int n = size - 1; n >= 0; n--) {
+        seq = cons(seq, n);
+      }
+      return seq;
+    }
+
+    @Override
+    Object cons(Object seq, Integer v) {
+      return ((fj.data.List<Integer>) seq).cons(v);
+    }
+
+    @Override
+    Object snoc(Object seq, Integer v) {
+      return ((fj.data.List<Integer>) seq).snoc(v);
+    }
+
+    @Override
+    Object get(Object seq, int index) {
+      return ((fj.data.List<Integer>) seq).index(index);
+    }
+
+    @Override
+    Object set(Object seq, int index, Integer v) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    Object tail(Object seq) {
+      return ((fj.data.List<Integer>) seq).tail();
+    }
+
+    @Override
+    Object concat(Object a, Object b) {
+      return ((fj.data.List<Integer>) a).append((fj.data.List<Integer>) b);
+    }
+  };
+
+  /** @return New empty sequence instance. */
+  abstract Object empty();
+
+  Object cons(Object seq, Integer v) {
+    return ((Seq<Integer>) seq).cons(v);
+  }
+
+  Object snoc(Object seq, Integer v) {
+    return ((Seq<Integer>) seq).snoc(v);
+  }
+
+  Object get(Object seq, int index) {
+    return ((Seq<Integer>) seq).get(index);
+  }
+
+  Object set(Object seq, int index, Integer v) {
+    return ((Seq<Integer>) seq).set(index, v);
+  }
+
+  Object tail(Object seq) {
+    return ((Seq<Integer>) seq).tail();
+  }
+
+  Object concat(Object a, Object b) {
+    return ((Seq<Integer>) a).concat((Seq<Integer>) b);
+  }
+
+  /** @return New sequence of integers from zero to size - 1. */
+  Object build(int size) {
+    Object seq = empty();
+    for (int n = 0; n < size; n++) {
+      seq = snoc(seq, n);
+    }
+    return seq;
+  }
+}
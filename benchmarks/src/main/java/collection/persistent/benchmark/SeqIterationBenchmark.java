@@ -0,0 +1,91 @@
+package collection.persistent.benchmark;
+
+import collection.persistent.Seq;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Traversal of a sequence of the given size with a visitor compared
+ * to iterators, and a scan which stops after the first few elements.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SeqIterationBenchmark {
+  @Param({"FINGER_TREE_SEQ", "FOREST_SEQ"})
+  SeqImpl impl;
+  @Param({"1000", "1000000"})
+  int size;
+  Seq<Integer> seq;
+
+  @Setup
+  public void setup() {
+    seq = (Seq<Integer>) impl.build(size);
+  }
+
+  @Benchmark
+  public int visit() {
+    Sum sum = new Sum();
+    seq.accept(sum);
+    return sum.sum;
+  }
+
+  @Benchmark
+  public int iterate() {
+    int sum = 0;
+    for (Integer v : seq) {
+      sum += v;
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int reverseIterate() {
+    int sum = 0;
+    Iterator<Integer> it = seq.reverseIterator();
+    while (it.hasNext()) {
+      sum += it.next();
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int iterateFirst() {
+    int sum = 0;
+    Iterator<Integer> it = seq.iterator();
+    for (int n = 0; n < 10 && it.hasNext(); n++) {
+      sum += it.next();
+    }
+    return sum;
+  }
+
+  static final class Sum implements Seq.Visitor<Integer> {
+    int sum;
+
+    @Override
+    public void before(int size) {}
+
+    @Override
+    public void visit(Integer v) {
+      sum += v;
+    }
+
+    @Override
+    public void after() {}
+  }
+}
@@ -1,7 +1,5 @@
 package collection.persistent;
 
-import collection.persistent.util.EmptyIterator;
-
 import javax.annotation.Nullable;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
@@ -14,31 +12,72 @@ import java.util.NoSuchElementException;
  * @param <V> Value type.
  */
 public final class ArrayTrieHashMap<K, V> implements Map<K, V> {
+  private final Tree<K, V> root;
+
+  /** Create new empty map instance. */
+  public ArrayTrieHashMap() {
+    this(Tree.<K, V>empty());
+  }
+
+  private ArrayTrieHashMap(Tree<K, V> root) {
+    this.root = root;
+  }
+
   @Nullable
   @Override
   public V get(K key) {
-    return null;
+    return root.find(keyHashCode(key), key, 0);
   }
 
   @Override
-  public Map<K, V> put(K key, V value) {
-    return Tree.<K, V>empty().insert(keyHashCode(key), key, value, 0);
+  public ArrayTrieHashMap<K, V> put(K key, V value) {
+    return new ArrayTrieHashMap<K, V>(root.insert(keyHashCode(key), key, value, 0));
   }
 
   @Override
-  public Map<K, V> remove(K key) {
-    return this;
+  public ArrayTrieHashMap<K, V> remove(K key) {
+    Node<K, V> result = root.remove(keyHashCode(key), key, 0);
+    if (result == root) {
+      return this;
+    }
+    if (result == null) {
+      return new ArrayTrieHashMap<K, V>();
+    }
+    return new ArrayTrieHashMap<K, V>((Tree<K, V>) result);
+  }
+
+  @Override
+  public int size() {
+    return root.size;
   }
 
   @Nullable
   @Override
   public List<Entry<K, V>> list() {
-    return null;
+    if (root.nodes.length == 0) {
+      return null;
+    }
+    return new ListParent<K, V>(null, root, 0).findLeaf();
   }
 
   @Override
   public Iterator<Entry<K, V>> iterator() {
-    return new EmptyIterator<Entry<K, V>>();
+    return new It<K, V>(root);
+  }
+
+  /**
+   * Please note that the depth is computed by visiting every table
+   * of the map, which takes linear time.
+   *
+   * @return The number of tables on the longest path from the root to a leaf.
+   */
+  public int depth() {
+    return root.depth();
+  }
+
+  /** @return The total number of tables in this map. */
+  int tables() {
+    return root.tables();
   }
 
   private static int keyHashCode(Object key) {
@@ -52,8 +91,52 @@ public final class ArrayTrieHashMap<K, V> implements Map<K, V> {
     return a == b || a != null && b != null && a.equals(b);
   }
 
+  /**
+   * Fast single-threaded builder of {@link ArrayTrieHashMap} instances.
+   * <p/>
+   * Tree nodes created by a builder are owned by that builder and are
+   * updated in place rather than copied on every insertion, so adding
+   * an entry allocates only the nodes that did not exist before.
+   * Building a map drops the ownership, after that the nodes are never
+   * modified again and the built map is as immutable as any other.
+   *
+   * @param <K> Key type.
+   * @param <V> Value type.
+   */
+  public static final class Builder<K, V> implements Map.Builder<K, V> {
+    private Tree<K, V> root;
+    private boolean built;
+
+    @Override
+    public Builder<K, V> put(K key, V value) {
+      if (built) {
+        throw new IllegalStateException();
+      }
+      if (root == null) {
+        root = new Tree<K, V>(this);
+      }
+      root = root.insert(this, keyHashCode(key), key, value, 0);
+      return this;
+    }
+
+    @Override
+    public ArrayTrieHashMap<K, V> build() {
+      if (built) {
+        throw new IllegalStateException();
+      }
+      built = true;
+      Tree<K, V> tree = root;
+      root = null;
+      if (tree == null) {
+        return new ArrayTrieHashMap<K, V>();
+      }
+      return new ArrayTrieHashMap<K, V>(tree);
+    }
+  }
+
   private interface Node<K, V> {
-    //
+    /** @return Number of entries in this node. */
+    int size();
   }
 
   private static final class Leaf<K, V>
@@ -62,12 +145,19 @@ public final class ArrayTrieHashMap<K, V> implements Map<K, V> {
     final K key;
     final V value;
     final Leaf<K, V> next;
+    final int size;
 
     Leaf(int hashCode, K key, V value, Leaf<K, V> next) {
       this.hashCode = hashCode;
       this.key = key;
       this.value = value;
       this.next = next;
+      size = next != null ? next.size + 1 : 1;
+    }
+
+    @Override
+    public int size() {
+      return size;
     }
 
     @Override
@@ -131,79 +221,69 @@ public final class ArrayTrieHashMap<K, V> implements Map<K, V> {
     }
   }
 
-  private static final class Tree<K, V>
-      implements Node<K, V>, Map<K, V> {
+  private static final class Tree<K, V> implements Node<K, V> {
     private static final Tree EMPTY = new Tree();
     private static final int MASK_WIDTH = 5;
     private static final int MASK = 31;
-    final int mask;
-    final Node<K, V>[] nodes;
+    /**
+     * The builder that owns this tree, or <code>null</code> if the tree
+     * is persistent. A tree owned by a builder is updated in place
+     * by that builder until the map is built.
+     */
+    final Builder<K, V> edit;
+    int mask;
+    Node<K, V>[] nodes;
+    int size;
 
     static <K, V> Tree<K, V> empty() {
       return EMPTY;
     }
 
     Tree() {
+      this(null);
+    }
+
+    Tree(Builder<K, V> edit) {
+      this.edit = edit;
       mask = 0;
       nodes = new Node[]{};
     }
 
     Tree(Tree<K, V> that, Node<K, V> node, int index) {
+      this(null, that, node, index);
+    }
+
+    Tree(Builder<K, V> edit, Tree<K, V> that, Node<K, V> node, int index) {
+      this.edit = edit;
+      int bit = 1 << index;
+      size = that.size - sizeOf(that.item(index)) + sizeOf(node);
       if (node != null) {
-        if ((that.mask & (1 << index)) == 0) {
+        if ((that.mask & bit) == 0) {
           // Insert new node into node.
-          mask = that.mask | (1 << index);
-          nodes = new Node[Integer.bitCount(mask)];
-          int offset = offset(1 << index);
-          for (int n = 0; n < nodes.length; n++) {
-            if (n < offset) {
-              nodes[n] = that.nodes[n];
-            }
-            else if (n == offset) {
-              nodes[n] = node;
-            }
-            else {
-              nodes[n] = that.nodes[n - 1];
-            }
-          }
+          mask = that.mask | bit;
+          nodes = insertAt(that.nodes, that.offset(bit), node);
         }
         else {
           // Replace existing node in node.
           mask = that.mask;
-          nodes = new Node[Integer.bitCount(mask)];
-          int offset = offset(1 << index);
-          for (int n = 0; n < nodes.length; n++) {
-            if (n == offset) {
-              nodes[n] = node;
-            }
-            else {
-              nodes[n] = that.nodes[n];
-            }
-          }
+          nodes = replaceAt(that.nodes, that.offset(bit), node);
         }
       }
       else {
         // Remove node from node.
-        mask = that.mask & ~(1 << index);
-        nodes = new Node[Integer.bitCount(mask)];
-        int offset = offset(1 << index);
-        for (int n = 0; n < nodes.length; n++) {
-          if (n < offset) {
-            nodes[n] = that.nodes[n];
-          }
-          else {
-            nodes[n] = that.nodes[n + 1];
-          }
-        }
+        mask = that.mask & ~bit;
+        nodes = removeAt(that.nodes, that.offset(bit));
       }
     }
 
-    Tree(Leaf<K, V> e1, Leaf<K, V> e2, int level) {
+    Tree(Builder<K, V> edit, Leaf<K, V> e1, Leaf<K, V> e2, int level) {
+      this.edit = edit;
+      size = e1.size + e2.size;
       int index1 = (e1.hashCode >>> (MASK_WIDTH * level)) & MASK;
       int index2 = (e2.hashCode >>> (MASK_WIDTH * level)) & MASK;
       if (index1 == index2) {
         mask = 1 << index1;
-        nodes = new Node[]{new Tree<K, V>(e1, e2, level + 1)};
+        nodes = new Node[]{new Tree<K, V>(edit, e1, e2, level + 1)};
       }
       else {
         mask = (1 << index1) | (1 << index2);
@@ -216,35 +296,6 @@ public final class ArrayTrieHashMap<K, V> implements Map<K, V> {
       }
     }
 
-    @Override
-    public V get(K key) {
-      return find(keyHashCode(key), key, 0);
-    }
-
-    @Override
-    public Map<K, V> put(K key, V value) {
-      return insert(keyHashCode(key), key, value, 0);
-    }
-
-    @Override
-    public Map<K, V> remove(K key) {
-      Tree<K, V> tree = remove(keyHashCode(key), key, 0);
-      if (tree == null) {
-        return new ArrayTrieHashMap<K, V>();
-      }
-      return tree;
-    }
-
-    @Override
-    public List<Entry<K, V>> list() {
-      return new ListParent<K, V>(null, this, 0).findLeaf();
-    }
-
-    @Override
-    public Iterator<Entry<K, V>> iterator() {
-      return new It<K, V>(this);
-    }
-
     V find(int hashCode, K key, int level) {
       int index = index(hashCode, level);
       Node<K, V> node = item(index);
@@ -257,15 +308,26 @@ public final class ArrayTrieHashMap<K, V> implements Map<K, V> {
     }
 
     Tree<K, V> insert(int hashCode, K key, V value, int level) {
+      return insert(null, hashCode, key, value, level);
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    Tree<K, V> insert(Builder<K, V> edit, int hashCode, K key, V value, int level) {
       int index = index(hashCode, level);
       Node<K, V> node = item(index);
+      // Remember the size now, an owned subtree is updated in place.
+      int before = sizeOf(node);
       if (node == null) {
         // The slot is empty, put new entry in it.
         node = new Leaf<K, V>(hashCode, key, value, null);
       }
       else if (node instanceof Tree) {
         // The slot is occupied by a subtree, let it handle insertion.
-        node = ((Tree<K, V>) node).insert(hashCode, key, value, level + 1);
+        node = ((Tree<K, V>) node).insert(edit, hashCode, key, value, level + 1);
       }
       else {
         // The slot is filled with an entry, either create a subtree
@@ -285,15 +347,27 @@ public final class ArrayTrieHashMap<K, V> implements Map<K, V> {
           else {
             // The suffixes are different, create a subtree
             // to hold both entries.
-            node = new Tree<K, V>(leaf,
+            node = new Tree<K, V>(edit, leaf,
                 new Leaf<K, V>(hashCode, key, value, null), level + 1);
           }
         }
       }
-      return new Tree<K, V>(this, node, index);
-    }
-
-    Tree<K, V> remove(int hashCode, K key, int level) {
+      return update(edit, node, index, sizeOf(node) - before);
+    }
+
+    /**
+     * Remove the entry with the specified key from this tree.
+     * <p/>
+     * A non-root tree which is left with a single leaf is contracted,
+     * that is the leaf itself is returned in place of the tree to be
+     * stored directly in the parent slot. This keeps the shape of a trie
+     * independent of the history of updates.
+     *
+     * @return This tree if there was no such key, an updated tree, a leaf
+     *         the updated tree was contracted to, or <code>null</code>
+     *         if the removed entry was the last one.
+     */
+    Node<K, V> remove(int hashCode, K key, int level) {
       int index = index(hashCode, level);
       Node<K, V> node = item(index);
       if (node == null) {
@@ -309,19 +383,50 @@ public final class ArrayTrieHashMap<K, V> implements Map<K, V> {
       if (node == result) {
         return this;
       }
+      int bit = 1 << index;
       if (result == null) {
-        int m = mask & ~(1 << index);
+        int m = mask & ~bit;
         if (m == 0) {
           // Removed last entry from this tree.
           return null;
         }
-        if ((m & (m - 1)) == 0) {
-          // TODO contract tables with only one entry
+        if (level > 0 && (m & (m - 1)) == 0) {
+          // Only one node is left, contract the tree if it is a leaf.
+          Node<K, V> last = nodes[offset(m)];
+          if (last instanceof Leaf) {
+            return last;
+          }
         }
       }
+      else if (level > 0 && mask == bit && result instanceof Leaf) {
+        // The only subtree was contracted to a leaf, contract this tree too.
+        return result;
+      }
       return new Tree<K, V>(this, result, index);
     }
 
+    /**
+     * Put node into the slot with the specified index. The tree is
+     * modified in place if it is owned by the specified builder,
+     * otherwise an updated copy is created. The delta is the change
+     * of the number of entries in the slot.
+     */
+    Tree<K, V> update(Builder<K, V> edit, Node<K, V> node, int index, int delta) {
+      if (edit == null || edit != this.edit) {
+        return new Tree<K, V>(edit, this, node, index);
+      }
+      size += delta;
+      int bit = 1 << index;
+      if ((mask & bit) == 0) {
+        nodes = insertAt(nodes, offset(bit), node);
+        mask = mask | bit;
+      }
+      else {
+        nodes[offset(bit)] = node;
+      }
+      return this;
+    }
+
     Node<K, V> item(int prefix) {
       int bit = 1 << prefix;
       if ((mask & bit) == 0) {
@@ -334,9 +439,54 @@ public final class ArrayTrieHashMap<K, V> implements Map<K, V> {
       return Integer.bitCount(mask & (bit - 1));
     }
 
+    int depth() {
+      int depth = 0;
+      for (Node<K, V> node : nodes) {
+        if (node instanceof Tree) {
+          depth = Math.max(depth, ((Tree<K, V>) node).depth());
+        }
+      }
+      return depth + 1;
+    }
+
+    int tables() {
+      int tables = 1;
+      for (Node<K, V> node : nodes) {
+        if (node instanceof Tree) {
+          tables += ((Tree<K, V>) node).tables();
+        }
+      }
+      return tables;
+    }
+
+    static int sizeOf(Node<?, ?> node) {
+      return node != null ? node.size() : 0;
+    }
+
     static int index(int hashCode, int level) {
       return (hashCode >>> (level * MASK_WIDTH)) & MASK;
     }
+
+    static <K, V> Node<K, V>[] insertAt(Node<K, V>[] nodes, int offset, Node<K, V> node) {
+      Node<K, V>[] result = new Node[nodes.length + 1];
+      System.arraycopy(nodes, 0, result, 0, offset);
+      result[offset] = node;
+      System.arraycopy(nodes, offset, result, offset + 1, nodes.length - offset);
+      return result;
+    }
+
+    static <K, V> Node<K, V>[] replaceAt(Node<K, V>[] nodes, int offset, Node<K, V> node) {
+      Node<K, V>[] result = nodes.clone();
+      result[offset] = node;
+      return result;
+    }
+
+    static <K, V> Node<K, V>[] removeAt(Node<K, V>[] nodes, int offset) {
+      Node<K, V>[] result = new Node[nodes.length - 1];
+      System.arraycopy(nodes, 0, result, 0, offset);
+      System.arraycopy(nodes, offset + 1, result, offset, nodes.length - offset - 1);
+      return result;
+    }
   }
 
   private static final class ListParent<K, V> {
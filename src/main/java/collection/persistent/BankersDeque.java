@@ -0,0 +1,127 @@
+package collection.persistent;
+
+import collection.persistent.lazy.Cell;
+import collection.persistent.lazy.Tail;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Persistent double-ended queue with amortized constant time operations,
+ * as described in the book <i>Purely Functional Data Structures</i>
+ * by Chris Okasaki.
+ * <p/>
+ * Elements are kept in a front and a reversed back lazy stream. When one
+ * stream gets more than {@value #C} times longer than the other, the
+ * longer stream is cut in half and the second half is lazily reversed
+ * onto the end of the shorter one.
+ *
+ * @param <T> Element type.
+ */
+public final class BankersDeque<T> implements Deque<T> {
+  static final int C = 3;
+  private final int sf;
+  private final Cell<T> f;
+  private final int sr;
+  private final Cell<T> r;
+
+  public BankersDeque() {
+    this(0, null, 0, null);
+  }
+
+  private BankersDeque(int sf, Cell<T> f, int sr, Cell<T> r) {
+    this.sf = sf;
+    this.f = f;
+    this.sr = sr;
+    this.r = r;
+  }
+
+  @Override
+  public int size() {
+    return sf + sr;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return sf + sr == 0;
+  }
+
+  @Override
+  public BankersDeque<T> cons(T v) {
+    return check(sf + 1, new Cell<T>(v, f), sr, r);
+  }
+
+  @Override
+  public T head() {
+    if (f == null) {
+      if (r == null) {
+        throw new NoSuchElementException();
+      }
+      return r.value();
+    }
+    return f.value();
+  }
+
+  @Override
+  public BankersDeque<T> tail() {
+    if (f == null) {
+      if (r == null) {
+        throw new NoSuchElementException();
+      }
+      return new BankersDeque<T>();
+    }
+    return check(sf - 1, f.tail(), sr, r);
+  }
+
+  @Override
+  public BankersDeque<T> snoc(T v) {
+    return check(sf, f, sr + 1, new Cell<T>(v, r));
+  }
+
+  @Override
+  public T last() {
+    if (r == null) {
+      if (f == null) {
+        throw new NoSuchElementException();
+      }
+      return f.value();
+    }
+    return r.value();
+  }
+
+  @Override
+  public BankersDeque<T> init() {
+    if (r == null) {
+      if (f == null) {
+        throw new NoSuchElementException();
+      }
+      return new BankersDeque<T>();
+    }
+    return check(sf, f, sr - 1, r.tail());
+  }
+
+  private static <T> BankersDeque<T> check(int sf, Cell<T> f, int sr, Cell<T> r) {
+    if (sf > C * sr + 1) {
+      int i = (sf + sr) / 2;
+      return new BankersDeque<T>(i, Cell.take(f, i),
+          sf + sr - i, Cell.concat(r, reverseDrop(f, i)));
+    }
+    else if (sr > C * sf + 1) {
+      int j = (sf + sr) / 2;
+      return new BankersDeque<T>(sf + sr - j, Cell.concat(f, reverseDrop(r, j)),
+          j, Cell.take(r, j));
+    }
+    else {
+      return new BankersDeque<T>(sf, f, sr, r);
+    }
+  }
+
+  /** @return Suspended reversal of the stream without the first n elements. */
+  private static <T> Tail<T> reverseDrop(final Cell<T> head, final int n) {
+    return new Tail.Memoized<T>() {
+      @Override
+      protected Cell<T> doEval() {
+        return Cell.reverse(Cell.drop(head, n).eval()).eval();
+      }
+    };
+  }
+}
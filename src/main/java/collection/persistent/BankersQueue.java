@@ -2,6 +2,8 @@ package collection.persistent;
 
 import collection.persistent.lazy.Cell;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.NoSuchElementException;
 
 public final class BankersQueue<T> implements Queue<T> {
@@ -36,6 +38,22 @@ public final class BankersQueue<T> implements Queue<T> {
     return check(sb + 1, new Cell<T>(v, b), sf, f);
   }
 
+  @Override
+  public BankersQueue<T> pushAll(Iterable<? extends T> values) {
+    int sb = this.sb;
+    Cell<T> b = this.b;
+    for (T v : values) {
+      sb++;
+      b = new Cell<T>(v, b);
+    }
+    return check(sb, b, sf, f);
+  }
+
+  @Override
+  public BankersQueue<T> pushAll(T[] values) {
+    return pushAll(Arrays.asList(values));
+  }
+
   @Override
   public T peek() {
     if (f == null) {
@@ -52,6 +70,50 @@ public final class BankersQueue<T> implements Queue<T> {
     return check(sb, b, sf - 1, f.tail());
   }
 
+  @Override
+  public BankersQueue<T> popN(int n) {
+    if (n < 0) {
+      throw new IllegalArgumentException();
+    }
+    if (n > size()) {
+      throw new NoSuchElementException();
+    }
+    return drain(null, n);
+  }
+
+  @Override
+  public BankersQueue<T> drainTo(Collection<? super T> c, int max) {
+    if (c == null) {
+      throw new NullPointerException();
+    }
+    if (max < 0) {
+      throw new IllegalArgumentException();
+    }
+    return drain(c, Math.min(max, size()));
+  }
+
+  /** Pop n elements, adding them to the collection unless it is null. */
+  private BankersQueue<T> drain(Collection<? super T> c, int n) {
+    int sb = this.sb;
+    Cell<T> b = this.b;
+    int sf = this.sf;
+    Cell<T> f = this.f;
+    for (; n > 0; n--) {
+      if (c != null) {
+        c.add(f.value());
+      }
+      sf--;
+      f = f.tail();
+      if (f == null && b != null) {
+        sf = sb;
+        f = Cell.reverse(b).eval();
+        sb = 0;
+        b = null;
+      }
+    }
+    return check(sb, b, sf, f);
+  }
+
   private static <T> BankersQueue<T> check(int sb, Cell<T> b, int sf, Cell<T> f) {
     if (sb < sf) {
       return new BankersQueue<T>(sb, b, sf, f);
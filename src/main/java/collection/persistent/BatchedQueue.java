@@ -1,5 +1,7 @@
 package collection.persistent;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.NoSuchElementException;
 
 /**
@@ -36,6 +38,20 @@ public final class BatchedQueue<T> implements Queue<T> {
     return check(b.push(v), f);
   }
 
+  @Override
+  public BatchedQueue<T> pushAll(Iterable<? extends T> values) {
+    Stack<T> b = this.b;
+    for (T v : values) {
+      b = b.push(v);
+    }
+    return check(b, f);
+  }
+
+  @Override
+  public BatchedQueue<T> pushAll(T[] values) {
+    return pushAll(Arrays.asList(values));
+  }
+
   @Override
   public T peek() {
     if (isEmpty()) {
@@ -52,6 +68,45 @@ public final class BatchedQueue<T> implements Queue<T> {
     return check(b, f.pop());
   }
 
+  @Override
+  public BatchedQueue<T> popN(int n) {
+    if (n < 0) {
+      throw new IllegalArgumentException();
+    }
+    if (n > size()) {
+      throw new NoSuchElementException();
+    }
+    return drain(null, n);
+  }
+
+  @Override
+  public BatchedQueue<T> drainTo(Collection<? super T> c, int max) {
+    if (c == null) {
+      throw new NullPointerException();
+    }
+    if (max < 0) {
+      throw new IllegalArgumentException();
+    }
+    return drain(c, Math.min(max, size()));
+  }
+
+  /** Pop n elements, adding them to the collection unless it is null. */
+  private BatchedQueue<T> drain(Collection<? super T> c, int n) {
+    Stack<T> b = this.b;
+    Stack<T> f = this.f;
+    for (; n > 0; n--) {
+      if (c != null) {
+        c.add(f.peek());
+      }
+      f = f.pop();
+      if (f.isEmpty()) {
+        f = b.reverse();
+        b = new Stack<T>();
+      }
+    }
+    return new BatchedQueue<T>(b, f);
+  }
+
   private static <T> BatchedQueue<T> check(Stack<T> b, Stack<T> f) {
     if (f.isEmpty()) {
       return new BatchedQueue<T>(f, b.reverse());
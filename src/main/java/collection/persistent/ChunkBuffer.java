@@ -0,0 +1,43 @@
+package collection.persistent;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * The array which the versions of a chunked queue push values into
+ * before the values are moved to the queue as a chunk.
+ * <p/>
+ * Versions of a queue share the buffer, each version knows how many
+ * values of the buffer belong to it. The first version to push a value
+ * after its last one claims the next slot and writes the value in place,
+ * other versions which push after the same value have to copy the buffer.
+ */
+final class ChunkBuffer {
+  /** The number of values in a full chunk. */
+  static final int SIZE = 32;
+  private static final AtomicIntegerFieldUpdater<ChunkBuffer> CLAIMED =
+      AtomicIntegerFieldUpdater.newUpdater(ChunkBuffer.class, "claimed");
+  final Object[] values;
+  private volatile int claimed;
+
+  ChunkBuffer() {
+    values = new Object[SIZE];
+  }
+
+  /**
+   * @param length The number of values in buffer which belong to the caller.
+   * @param v      A value to add.
+   * @return Buffer which holds the value at index length, either this
+   *         or a copy.
+   */
+  ChunkBuffer add(int length, Object v) {
+    if (CLAIMED.compareAndSet(this, length, length + 1)) {
+      values[length] = v;
+      return this;
+    }
+    ChunkBuffer copy = new ChunkBuffer();
+    System.arraycopy(values, 0, copy.values, 0, length);
+    copy.values[length] = v;
+    copy.claimed = length + 1;
+    return copy;
+  }
+}
@@ -0,0 +1,202 @@
+package collection.persistent;
+
+import collection.persistent.lazy.ChunkCell;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.NoSuchElementException;
+
+/**
+ * A variant of {@link BankersQueue} which keeps its elements in chunked
+ * lazy streams, so the queue costs about an array slot per element
+ * instead of a cell per element, and rotates chunks rather than
+ * single elements.
+ * <p/>
+ * Pushed elements go to a buffer array, which becomes a chunk of the back
+ * list when full. The queue is balanced by the numbers of chunks,
+ * the elements are popped from the first chunk of the front stream.
+ *
+ * @param <T> Element type.
+ */
+public final class ChunkedBankersQueue<T> implements Queue<T> {
+  private final int sb;
+  private final ChunkCell<T> b;
+  private final int sf;
+  private final ChunkCell<T> f;
+  private final int offset;
+  private final ChunkBuffer buffer;
+  private final int length;
+  private final int size;
+
+  public ChunkedBankersQueue() {
+    this(0, null, 0, null, 0, null, 0, 0);
+  }
+
+  private ChunkedBankersQueue(int sb, ChunkCell<T> b, int sf, ChunkCell<T> f, int offset,
+                              ChunkBuffer buffer, int length, int size) {
+    this.sb = sb;
+    this.b = b;
+    this.sf = sf;
+    this.f = f;
+    this.offset = offset;
+    this.buffer = buffer;
+    this.length = length;
+    this.size = size;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return f == null;
+  }
+
+  @Override
+  public ChunkedBankersQueue<T> push(T v) {
+    int sb = this.sb;
+    ChunkCell<T> b = this.b;
+    ChunkBuffer buffer = this.buffer;
+    int length = this.length;
+    if (length == ChunkBuffer.SIZE) {
+      sb++;
+      b = new ChunkCell<T>(buffer.values, length, b);
+      buffer = null;
+      length = 0;
+    }
+    if (buffer == null) {
+      buffer = new ChunkBuffer();
+    }
+    return check(sb, b, sf, f, offset, buffer.add(length, v), length + 1, size + 1);
+  }
+
+  @Override
+  public ChunkedBankersQueue<T> pushAll(Iterable<? extends T> values) {
+    int sb = this.sb;
+    ChunkCell<T> b = this.b;
+    ChunkBuffer buffer = this.buffer;
+    int length = this.length;
+    int size = this.size;
+    for (T v : values) {
+      if (length == ChunkBuffer.SIZE) {
+        sb++;
+        b = new ChunkCell<T>(buffer.values, length, b);
+        buffer = null;
+        length = 0;
+      }
+      if (buffer == null) {
+        buffer = new ChunkBuffer();
+      }
+      buffer = buffer.add(length++, v);
+      size++;
+    }
+    return check(sb, b, sf, f, offset, buffer, length, size);
+  }
+
+  @Override
+  public ChunkedBankersQueue<T> pushAll(T[] values) {
+    return pushAll(Arrays.asList(values));
+  }
+
+  @Override
+  public T peek() {
+    if (f == null) {
+      throw new NoSuchElementException();
+    }
+    return f.get(offset);
+  }
+
+  @Override
+  public ChunkedBankersQueue<T> pop() {
+    if (f == null) {
+      throw new NoSuchElementException();
+    }
+    if (offset + 1 < f.size()) {
+      return new ChunkedBankersQueue<T>(sb, b, sf, f, offset + 1, buffer, length, size - 1);
+    }
+    else {
+      return check(sb, b, sf - 1, f.tail(), 0, buffer, length, size - 1);
+    }
+  }
+
+  @Override
+  public ChunkedBankersQueue<T> popN(int n) {
+    if (n < 0) {
+      throw new IllegalArgumentException();
+    }
+    if (n > size()) {
+      throw new NoSuchElementException();
+    }
+    return drain(null, n);
+  }
+
+  @Override
+  public ChunkedBankersQueue<T> drainTo(Collection<? super T> c, int max) {
+    if (c == null) {
+      throw new NullPointerException();
+    }
+    if (max < 0) {
+      throw new IllegalArgumentException();
+    }
+    return drain(c, Math.min(max, size()));
+  }
+
+  /** Pop n elements a chunk at a time, adding them to the collection unless it is null. */
+  private ChunkedBankersQueue<T> drain(Collection<? super T> c, int n) {
+    int sb = this.sb;
+    ChunkCell<T> b = this.b;
+    int sf = this.sf;
+    ChunkCell<T> f = this.f;
+    int offset = this.offset;
+    ChunkBuffer buffer = this.buffer;
+    int length = this.length;
+    int size = this.size - n;
+    while (n > 0) {
+      if (f == null) {
+        if (b != null) {
+          sf = sb;
+          f = ChunkCell.reverse(b).eval();
+          sb = 0;
+          b = null;
+        }
+        else {
+          sf = 1;
+          f = new ChunkCell<T>(buffer.values, length, null);
+          buffer = null;
+          length = 0;
+        }
+      }
+      int end = Math.min(f.size(), offset + n);
+      n -= end - offset;
+      if (c != null) {
+        for (; offset < end; offset++) {
+          c.add(f.get(offset));
+        }
+      }
+      offset = end;
+      if (offset == f.size()) {
+        sf--;
+        f = f.tail();
+        offset = 0;
+      }
+    }
+    return check(sb, b, sf, f, offset, buffer, length, size);
+  }
+
+  private static <T> ChunkedBankersQueue<T> check(int sb, ChunkCell<T> b, int sf, ChunkCell<T> f,
+                                                  int offset, ChunkBuffer buffer, int length,
+                                                  int size) {
+    if (sb > sf) {
+      return new ChunkedBankersQueue<T>(0, null, sb + sf, ChunkCell.concat(f, ChunkCell.reverse(b)),
+          offset, buffer, length, size);
+    }
+    if (f == null && length > 0) {
+      // The back list is empty too, move the buffered elements to front.
+      return new ChunkedBankersQueue<T>(0, null, 1, new ChunkCell<T>(buffer.values, length, null),
+          0, null, 0, size);
+    }
+    return new ChunkedBankersQueue<T>(sb, b, sf, f, offset, buffer, length, size);
+  }
+}
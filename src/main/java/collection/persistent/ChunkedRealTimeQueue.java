@@ -0,0 +1,223 @@
+package collection.persistent;
+
+import collection.persistent.lazy.ChunkCell;
+import collection.persistent.lazy.ChunkTail;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.NoSuchElementException;
+
+/**
+ * A variant of {@link RealTimeQueue} which keeps its elements in chunked
+ * lazy streams, so the queue costs about an array slot per element
+ * instead of a cell per element, and rotates chunks rather than
+ * single elements.
+ * <p/>
+ * Pushed elements go to a buffer array, which becomes a chunk of the back
+ * list when full. The rotation schedule advances by a chunk whenever
+ * a chunk is added to the back list or removed from the front stream,
+ * so every operation still takes constant time in the worst case.
+ *
+ * @param <T> Element type.
+ */
+public final class ChunkedRealTimeQueue<T> implements Queue<T> {
+  private final ChunkCell<T> b;
+  private final ChunkCell<T> f;
+  private final int offset;
+  private final ChunkCell<T> s;
+  private final ChunkBuffer buffer;
+  private final int length;
+  private final int size;
+
+  public ChunkedRealTimeQueue() {
+    this(null, null, 0, null, null, 0, 0);
+  }
+
+  private ChunkedRealTimeQueue(ChunkCell<T> b, ChunkCell<T> f, int offset, ChunkCell<T> s,
+                               ChunkBuffer buffer, int length, int size) {
+    this.b = b;
+    this.f = f;
+    this.offset = offset;
+    this.s = s;
+    this.buffer = buffer;
+    this.length = length;
+    this.size = size;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return f == null;
+  }
+
+  @Override
+  public ChunkedRealTimeQueue<T> push(T v) {
+    if (length == ChunkBuffer.SIZE) {
+      ChunkBuffer buffer = new ChunkBuffer().add(0, v);
+      return exec(new ChunkCell<T>(this.buffer.values, length, b), f, offset, s, buffer, 1, size + 1);
+    }
+    ChunkBuffer buffer = this.buffer == null ? new ChunkBuffer() : this.buffer;
+    return create(b, f, offset, s, buffer.add(length, v), length + 1, size + 1);
+  }
+
+  @Override
+  public ChunkedRealTimeQueue<T> pushAll(Iterable<? extends T> values) {
+    // The schedule has to advance on every new chunk to keep the worst
+    // case bounds, so only the intermediate queue objects are saved.
+    ChunkCell<T> b = this.b;
+    ChunkCell<T> f = this.f;
+    ChunkCell<T> s = this.s;
+    ChunkBuffer buffer = this.buffer;
+    int length = this.length;
+    int size = this.size;
+    for (T v : values) {
+      if (length == ChunkBuffer.SIZE) {
+        b = new ChunkCell<T>(buffer.values, length, b);
+        if (s == null) {
+          f = s = rotate(f, b, null);
+          b = null;
+        }
+        else {
+          s = s.tail();
+        }
+        buffer = null;
+        length = 0;
+      }
+      if (buffer == null) {
+        buffer = new ChunkBuffer();
+      }
+      buffer = buffer.add(length++, v);
+      size++;
+    }
+    return create(b, f, offset, s, buffer, length, size);
+  }
+
+  @Override
+  public ChunkedRealTimeQueue<T> pushAll(T[] values) {
+    return pushAll(Arrays.asList(values));
+  }
+
+  @Override
+  public T peek() {
+    if (f == null) {
+      throw new NoSuchElementException();
+    }
+    return f.get(offset);
+  }
+
+  @Override
+  public ChunkedRealTimeQueue<T> pop() {
+    if (f == null) {
+      throw new NoSuchElementException();
+    }
+    if (offset + 1 < f.size()) {
+      return new ChunkedRealTimeQueue<T>(b, f, offset + 1, s, buffer, length, size - 1);
+    }
+    else {
+      return exec(b, f.tail(), 0, s, buffer, length, size - 1);
+    }
+  }
+
+  @Override
+  public ChunkedRealTimeQueue<T> popN(int n) {
+    if (n < 0) {
+      throw new IllegalArgumentException();
+    }
+    if (n > size()) {
+      throw new NoSuchElementException();
+    }
+    return drain(null, n);
+  }
+
+  @Override
+  public ChunkedRealTimeQueue<T> drainTo(Collection<? super T> c, int max) {
+    if (c == null) {
+      throw new NullPointerException();
+    }
+    if (max < 0) {
+      throw new IllegalArgumentException();
+    }
+    return drain(c, Math.min(max, size()));
+  }
+
+  /** Pop n elements a chunk at a time, adding them to the collection unless it is null. */
+  private ChunkedRealTimeQueue<T> drain(Collection<? super T> c, int n) {
+    ChunkCell<T> b = this.b;
+    ChunkCell<T> f = this.f;
+    int offset = this.offset;
+    ChunkCell<T> s = this.s;
+    ChunkBuffer buffer = this.buffer;
+    int length = this.length;
+    int size = this.size - n;
+    while (n > 0) {
+      if (f == null) {
+        // The back list and schedule are empty too.
+        f = s = new ChunkCell<T>(buffer.values, length, null);
+        buffer = null;
+        length = 0;
+      }
+      int end = Math.min(f.size(), offset + n);
+      n -= end - offset;
+      if (c != null) {
+        for (; offset < end; offset++) {
+          c.add(f.get(offset));
+        }
+      }
+      offset = end;
+      if (offset == f.size()) {
+        f = f.tail();
+        offset = 0;
+        if (s == null) {
+          f = s = rotate(f, b, null);
+          b = null;
+        }
+        else {
+          s = s.tail();
+        }
+      }
+    }
+    return create(b, f, offset, s, buffer, length, size);
+  }
+
+  private static <T> ChunkedRealTimeQueue<T> exec(ChunkCell<T> b, ChunkCell<T> f, int offset,
+                                                  ChunkCell<T> s, ChunkBuffer buffer,
+                                                  int length, int size) {
+    if (s == null) {
+      ChunkCell<T> r = rotate(f, b, null);
+      return create(null, r, offset, r, buffer, length, size);
+    }
+    else {
+      return create(b, f, offset, s.tail(), buffer, length, size);
+    }
+  }
+
+  private static <T> ChunkedRealTimeQueue<T> create(ChunkCell<T> b, ChunkCell<T> f, int offset,
+                                                    ChunkCell<T> s, ChunkBuffer buffer,
+                                                    int length, int size) {
+    if (f == null && length > 0) {
+      // The back list and schedule are empty too, move the buffered elements to front.
+      ChunkCell<T> r = new ChunkCell<T>(buffer.values, length, null);
+      return new ChunkedRealTimeQueue<T>(null, r, 0, r, null, 0, size);
+    }
+    return new ChunkedRealTimeQueue<T>(b, f, offset, s, buffer, length, size);
+  }
+
+  private static <T> ChunkCell<T> rotate(final ChunkCell<T> x, final ChunkCell<T> y,
+                                         final ChunkCell<T> a) {
+    if (x == null) {
+      return y.with(a);
+    }
+    else {
+      return x.with(new ChunkTail<T>() {
+        @Override
+        public ChunkCell<T> eval() {
+          return rotate(x.tail(), y.tail(), y.with(a));
+        }
+      });
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package collection.persistent;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A persistent double-ended queue. Every mutation operation creates new
+ * modified deque instance, the previous version is left unmodified.
+ *
+ * @param <T> Element type.
+ */
+public interface Deque<T> {
+  int size();
+
+  boolean isEmpty();
+
+  /**
+   * @param v An element to insert at the front.
+   * @return Updated deque.
+   */
+  Deque<T> cons(T v);
+
+  /**
+   * @return The element at the front.
+   * @throws NoSuchElementException If deque is empty.
+   */
+  T head();
+
+  /**
+   * @return The deque without the element at the front.
+   * @throws NoSuchElementException If deque is empty.
+   */
+  Deque<T> tail();
+
+  /**
+   * @param v An element to insert at the back.
+   * @return Updated deque.
+   */
+  Deque<T> snoc(T v);
+
+  /**
+   * @return The element at the back.
+   * @throws NoSuchElementException If deque is empty.
+   */
+  T last();
+
+  /**
+   * @return The deque without the element at the back.
+   * @throws NoSuchElementException If deque is empty.
+   */
+  Deque<T> init();
+}
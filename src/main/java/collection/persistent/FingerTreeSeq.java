@@ -1,5 +1,9 @@
 package collection.persistent;
 
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
 /**
  * A sequence based on the monoidally annotated 2-3 finger tree
  * data structure as described in the publication
@@ -20,6 +24,34 @@ public final class FingerTreeSeq<T> implements Seq<T> {
     root = that;
   }
 
+  /**
+   * Build a sequence of the array elements in linear time.
+   *
+   * @param elements The elements in order, the first one gets index 0.
+   * @return New sequence.
+   */
+  public static <T> FingerTreeSeq<T> fromArray(T[] elements) {
+    Fragment<T>[] fragments = new Fragment[elements.length];
+    for (int n = 0; n < elements.length; n++) {
+      fragments[n] = new Elem<T>(elements[n]);
+    }
+    return new FingerTreeSeq<T>(Tree.build(fragments, fragments.length));
+  }
+
+  /**
+   * Build a sequence of the iterable elements in linear time.
+   *
+   * @param elements The elements in order, the first one gets index 0.
+   * @return New sequence.
+   */
+  public static <T> FingerTreeSeq<T> fromIterable(Iterable<? extends T> elements) {
+    Builder<T> builder = new Builder<T>();
+    for (T v : elements) {
+      builder.add(v);
+    }
+    return builder.build();
+  }
+
   @Override
   public T head()
       throws RangeException {
@@ -52,8 +84,138 @@ public final class FingerTreeSeq<T> implements Seq<T> {
     }
   }
 
+  /**
+   * Concatenate two sequences in time logarithmic
+   * in the size of the smaller one.
+   *
+   * @param that The sequence to append to this sequence.
+   * @return This sequence followed by that sequence.
+   */
   public FingerTreeSeq<T> concat(FingerTreeSeq<T> that) {
-    throw new UnsupportedOperationException();
+    if (that.root instanceof Tree.Empty) {
+      return this;
+    }
+    if (root instanceof Tree.Empty) {
+      return that;
+    }
+    return new FingerTreeSeq<T>(Tree.app3(root, null, 0, that.root));
+  }
+
+  /**
+   * Split this sequence into two at the specified index.
+   *
+   * @param index The index of the first element of the right part,
+   *              from 0 to the sequence size inclusive.
+   * @return The left part with elements before the index
+   *         and the right part with the rest of elements.
+   * @throws RangeException If index is out of range.
+   */
+  public Split<T> splitAt(int index)
+      throws RangeException {
+    if (index < 0 || index > size()) {
+      throw new RangeException();
+    }
+    if (index == 0) {
+      return new Split<T>(new FingerTreeSeq<T>(), this);
+    }
+    if (index == size()) {
+      return new Split<T>(this, new FingerTreeSeq<T>());
+    }
+    Tree.Split<T> split = Tree.split(root, index);
+    return new Split<T>(
+        new FingerTreeSeq<T>(split.left),
+        new FingerTreeSeq<T>(split.right.cons(split.pivot)));
+  }
+
+  /**
+   * @param count Number of elements to take, from 0 to the sequence size.
+   * @return The first elements of this sequence.
+   * @throws RangeException If count is out of range.
+   */
+  public FingerTreeSeq<T> take(int count)
+      throws RangeException {
+    if (count < 0 || count > size()) {
+      throw new RangeException();
+    }
+    if (count == size()) {
+      return this;
+    }
+    if (count == 0) {
+      return new FingerTreeSeq<T>();
+    }
+    return new FingerTreeSeq<T>(Tree.split(root, count).left);
+  }
+
+  /**
+   * @param count Number of elements to drop, from 0 to the sequence size.
+   * @return This sequence without the first elements.
+   * @throws RangeException If count is out of range.
+   */
+  public FingerTreeSeq<T> drop(int count)
+      throws RangeException {
+    if (count < 0 || count > size()) {
+      throw new RangeException();
+    }
+    if (count == 0) {
+      return this;
+    }
+    if (count == size()) {
+      return new FingerTreeSeq<T>();
+    }
+    Tree.Split<T> split = Tree.split(root, count);
+    return new FingerTreeSeq<T>(split.right.cons(split.pivot));
+  }
+
+  /**
+   * @param from The index of the first element, inclusive.
+   * @param to   The index of the last element, exclusive.
+   * @return The elements of this sequence in the specified range.
+   * @throws RangeException If range is out of bounds.
+   */
+  public FingerTreeSeq<T> subSeq(int from, int to)
+      throws RangeException {
+    if (from < 0 || from > to || to > size()) {
+      throw new RangeException();
+    }
+    return drop(from).take(to - from);
+  }
+
+  /**
+   * Insert element at the specified position.
+   *
+   * @param index The index of the inserted element,
+   *              from 0 to the sequence size inclusive.
+   * @param v     An element to insert.
+   * @return Updated sequence.
+   * @throws RangeException If index is out of range.
+   */
+  public FingerTreeSeq<T> insert(int index, T v)
+      throws RangeException {
+    if (index < 0 || index > size()) {
+      throw new RangeException();
+    }
+    if (index == size()) {
+      return snoc(v);
+    }
+    Tree.Split<T> split = Tree.split(root, index);
+    return new FingerTreeSeq<T>(Tree.app3(
+        split.left.snoc(new Elem<T>(v)), null, 0, split.right.cons(split.pivot)));
+  }
+
+  /**
+   * Remove element at the specified position.
+   *
+   * @param index The index of the element to remove.
+   * @return Updated sequence.
+   * @throws RangeException If index is out of range.
+   */
+  public FingerTreeSeq<T> remove(int index)
+      throws RangeException {
+    if (index < 0 || index >= size()) {
+      throw new RangeException();
+    }
+    Tree.Split<T> split = Tree.split(root, index);
+    return new FingerTreeSeq<T>(Tree.app3(split.left, null, 0, split.right));
   }
 
   @Override
@@ -80,6 +242,74 @@ public final class FingerTreeSeq<T> implements Seq<T> {
     visitor.after();
   }
 
+  @Override
+  public Iterator<T> iterator() {
+    return new It<T>(root, false);
+  }
+
+  @Override
+  public Iterator<T> reverseIterator() {
+    return new It<T>(root, true);
+  }
+
+  /**
+   * Builder of {@link FingerTreeSeq} instances which collects the added
+   * elements and builds the tree bottom-up in linear time.
+   *
+   * @param <T> Element type.
+   */
+  public static final class Builder<T> implements Seq.Builder<T> {
+    private Fragment<T>[] fragments = new Fragment[16];
+    private int count;
+
+    @Override
+    public Builder<T> add(T v) {
+      if (fragments == null) {
+        throw new IllegalStateException();
+      }
+      if (count == fragments.length) {
+        fragments = Arrays.copyOf(fragments, count * 2);
+      }
+      fragments[count++] = new Elem<T>(v);
+      return this;
+    }
+
+    @Override
+    public FingerTreeSeq<T> build() {
+      if (fragments == null) {
+        throw new IllegalStateException();
+      }
+      Fragment<T>[] fragments = this.fragments;
+      this.fragments = null;
+      return new FingerTreeSeq<T>(Tree.build(fragments, count));
+    }
+  }
+
+  /**
+   * Two parts of a split sequence.
+   *
+   * @param <T> Element type.
+   */
+  public static final class Split<T> {
+    private final FingerTreeSeq<T> left;
+    private final FingerTreeSeq<T> right;
+
+    Split(FingerTreeSeq<T> left, FingerTreeSeq<T> right) {
+      this.left = left;
+      this.right = right;
+    }
+
+    /** @return The elements before the split index. */
+    public FingerTreeSeq<T> left() {
+      return left;
+    }
+
+    /** @return The elements from the split index to the end. */
+    public FingerTreeSeq<T> right() {
+      return right;
+    }
+  }
+
   private abstract static class Fragment<T> {
     abstract T head();
 
@@ -92,6 +322,9 @@ public final class FingerTreeSeq<T> implements Seq<T> {
     abstract Fragment<T> set(int index, T v);
 
     abstract void accept(Seq.Visitor<T> visitor);
+
+    /** Push the parts of this fragment to the iterator stack. */
+    abstract void push(It<T> it);
   }
 
   private static final class Elem<T> extends Fragment<T> {
@@ -136,6 +369,11 @@ public final class FingerTreeSeq<T> implements Seq<T> {
     void accept(Seq.Visitor<T> visitor) {
       visitor.visit(v);
     }
+
+    @Override
+    void push(It<T> it) {
+      throw new IllegalStateException(); // unreachable
+    }
   }
 
   private abstract static class Digit<T> extends Fragment<T> {
@@ -153,6 +391,18 @@ public final class FingerTreeSeq<T> implements Seq<T> {
 
     abstract Tree<T> tree();
 
+    /**
+     * Remove the last fragment of this right digit.
+     *
+     * @param l The left digit of the tree.
+     * @param m The middle tree of the tree.
+     * @return The tree without the last fragment.
+     */
+    abstract Tree<T> init(Digit<T> l, Tree<T> m);
+
+    /** @return The last fragment of this digit as digit. */
+    abstract Digit<T> lastDigit();
+
     @Override
     abstract int size();
 
@@ -162,6 +412,13 @@ public final class FingerTreeSeq<T> implements Seq<T> {
     @Override
     abstract Digit<T> set(int index, T v);
 
+    /**
+     * Copy fragments of this digit to the array.
+     *
+     * @return The array index after the last copied fragment.
+     */
+    abstract int append(Fragment<T>[] fragments, int index);
+
     static final class One<T> extends Digit<T> {
       final Fragment<T> a;
       final int size;
@@ -201,6 +458,16 @@ public final class FingerTreeSeq<T> implements Seq<T> {
         return new Tree.Single<T>(a);
       }
 
+      @Override
+      Tree<T> init(Digit<T> l, Tree<T> m) {
+        return m.treeR(l);
+      }
+
+      @Override
+      Digit<T> lastDigit() {
+        return a.digit();
+      }
+
       @Override
       int size() {
         return size;
@@ -222,10 +489,21 @@ public final class FingerTreeSeq<T> implements Seq<T> {
         throw new RangeException();
       }
 
+      @Override
+      int append(Fragment<T>[] fragments, int index) {
+        fragments[index++] = a;
+        return index;
+      }
+
       @Override
       void accept(Seq.Visitor<T> visitor) {
         a.accept(visitor);
       }
+
+      @Override
+      void push(It<T> it) {
+        it.push(a);
+      }
     }
 
     static final class Two<T> extends Digit<T> {
@@ -270,6 +548,16 @@ public final class FingerTreeSeq<T> implements Seq<T> {
             new Digit.One<T>(a), new Tree.Empty<T>(), new Digit.One<T>(b));
       }
 
+      @Override
+      Tree<T> init(Digit<T> l, Tree<T> m) {
+        return new Tree.Deep<T>(l, m, new One<T>(a));
+      }
+
+      @Override
+      Digit<T> lastDigit() {
+        return b.digit();
+      }
+
       @Override
       int size() {
         return size;
@@ -299,11 +587,23 @@ public final class FingerTreeSeq<T> implements Seq<T> {
         throw new RangeException();
       }
 
+      @Override
+      int append(Fragment<T>[] fragments, int index) {
+        fragments[index++] = a;
+        fragments[index++] = b;
+        return index;
+      }
+
       @Override
       void accept(Seq.Visitor<T> visitor) {
         a.accept(visitor);
         b.accept(visitor);
       }
+
+      @Override
+      void push(It<T> it) {
+        it.push(a, b);
+      }
     }
 
     static final class Three<T> extends Digit<T> {
@@ -350,6 +650,16 @@ public final class FingerTreeSeq<T> implements Seq<T> {
             new Digit.Two<T>(a, b), new Tree.Empty<T>(), new Digit.One<T>(c));
       }
 
+      @Override
+      Tree<T> init(Digit<T> l, Tree<T> m) {
+        return new Tree.Deep<T>(l, m, new Two<T>(a, b));
+      }
+
+      @Override
+      Digit<T> lastDigit() {
+        return c.digit();
+      }
+
       @Override
       int size() {
         return size;
@@ -387,12 +697,25 @@ public final class FingerTreeSeq<T> implements Seq<T> {
         throw new RangeException();
       }
 
+      @Override
+      int append(Fragment<T>[] fragments, int index) {
+        fragments[index++] = a;
+        fragments[index++] = b;
+        fragments[index++] = c;
+        return index;
+      }
+
       @Override
       void accept(Seq.Visitor<T> visitor) {
         a.accept(visitor);
         b.accept(visitor);
         c.accept(visitor);
       }
+
+      @Override
+      void push(It<T> it) {
+        it.push(a, b, c);
+      }
     }
 
     static final class Four<T> extends Digit<T> {
@@ -443,6 +766,16 @@ public final class FingerTreeSeq<T> implements Seq<T> {
             new Digit.Three<T>(a, b, c), new Tree.Empty<T>(), new Digit.One<T>(d));
       }
 
+      @Override
+      Tree<T> init(Digit<T> l, Tree<T> m) {
+        return new Tree.Deep<T>(l, m, new Three<T>(a, b, c));
+      }
+
+      @Override
+      Digit<T> lastDigit() {
+        return d.digit();
+      }
+
       @Override
       int size() {
         return size;
@@ -488,6 +821,15 @@ public final class FingerTreeSeq<T> implements Seq<T> {
         throw new RangeException();
       }
 
+      @Override
+      int append(Fragment<T>[] fragments, int index) {
+        fragments[index++] = a;
+        fragments[index++] = b;
+        fragments[index++] = c;
+        fragments[index++] = d;
+        return index;
+      }
+
       @Override
       void accept(Seq.Visitor<T> visitor) {
         a.accept(visitor);
@@ -495,6 +837,11 @@ public final class FingerTreeSeq<T> implements Seq<T> {
         c.accept(visitor);
         d.accept(visitor);
       }
+
+      @Override
+      void push(It<T> it) {
+        it.push(a, b, c, d);
+      }
     }
   }
 
@@ -559,6 +906,11 @@ public final class FingerTreeSeq<T> implements Seq<T> {
         a.accept(visitor);
         b.accept(visitor);
       }
+
+      @Override
+      void push(It<T> it) {
+        it.push(a, b);
+      }
     }
 
     static final class Node3<T> extends Node<T> {
@@ -625,6 +977,11 @@ public final class FingerTreeSeq<T> implements Seq<T> {
         b.accept(visitor);
         c.accept(visitor);
       }
+
+      @Override
+      void push(It<T> it) {
+        it.push(a, b, c);
+      }
     }
   }
 
@@ -640,9 +997,240 @@ public final class FingerTreeSeq<T> implements Seq<T> {
 
     abstract Tree<T> tree(Digit<T> r);
 
+    abstract Tree<T> init();
+
+    /** @return The last fragment of this tree as digit. */
+    abstract Digit<T> lastDigit();
+
+    /**
+     * Make a tree with the specified left digit, this tree as the middle
+     * tree and the last fragment of this tree as the right digit.
+     */
+    abstract Tree<T> treeR(Digit<T> l);
+
     @Override
     abstract Tree<T> set(int index, T v);
 
+    /**
+     * Concatenate two trees with at most four fragments in between.
+     *
+     * @param a         The left tree.
+     * @param fragments The fragments between the trees.
+     * @param count     Number of the fragments.
+     * @param b         The right tree.
+     * @return The concatenated tree.
+     */
+    static <T> Tree<T> app3(Tree<T> a, Fragment<T>[] fragments, int count, Tree<T> b) {
+      if (a instanceof Empty) {
+        for (int n = count - 1; n >= 0; n--) {
+          b = b.cons(fragments[n]);
+        }
+        return b;
+      }
+      if (b instanceof Empty) {
+        for (int n = 0; n < count; n++) {
+          a = a.snoc(fragments[n]);
+        }
+        return a;
+      }
+      if (a instanceof Single) {
+        for (int n = count - 1; n >= 0; n--) {
+          b = b.cons(fragments[n]);
+        }
+        return b.cons(((Single<T>) a).f);
+      }
+      if (b instanceof Single) {
+        for (int n = 0; n < count; n++) {
+          a = a.snoc(fragments[n]);
+        }
+        return a.snoc(((Single<T>) b).f);
+      }
+      Deep<T> x = (Deep<T>) a;
+      Deep<T> y = (Deep<T>) b;
+      Fragment<T>[] middle = new Fragment[12];
+      int size = x.r.append(middle, 0);
+      for (int n = 0; n < count; n++) {
+        middle[size++] = fragments[n];
+      }
+      size = y.l.append(middle, size);
+      return new Deep<T>(x.l, app3(x.m, middle, nodes(middle, 0, size), y.m), y.r);
+    }
+
+    /**
+     * A tree split around a fragment.
+     *
+     * @param <T> Element type.
+     */
+    static final class Split<T> {
+      /** The fragments before the pivot. */
+      final Tree<T> left;
+      /** The fragment with the split index. */
+      final Fragment<T> pivot;
+      /** The fragments after the pivot. */
+      final Tree<T> right;
+      /** The split index relative to the pivot. */
+      final int index;
+
+      Split(Tree<T> left, Fragment<T> pivot, Tree<T> right, int index) {
+        this.left = left;
+        this.pivot = pivot;
+        this.right = right;
+        this.index = index;
+      }
+    }
+
+    /**
+     * Split tree around the fragment which contains the element with
+     * the specified index, descending along the cached fragment sizes.
+     *
+     * @param tree  A non-empty tree.
+     * @param index The element index, must be less than the tree size.
+     * @return The split tree.
+     */
+    static <T> Split<T> split(Tree<T> tree, int index) {
+      if (tree instanceof Single) {
+        return new Split<T>(new Empty<T>(), ((Single<T>) tree).f, new Empty<T>(), index);
+      }
+      Deep<T> deep = (Deep<T>) tree;
+      Fragment<T>[] fragments = new Fragment[4];
+      if (index < deep.l.size()) {
+        int count = deep.l.append(fragments, 0);
+        int k = locate(fragments, index);
+        return new Split<T>(
+            tree(fragments, 0, k),
+            fragments[k],
+            deepL(digit(fragments, k + 1, count), deep.m, deep.r),
+            offset(fragments, k, index));
+      }
+      index -= deep.l.size();
+      if (index < deep.m.size()) {
+        Split<T> split = split(deep.m, index);
+        int count = split.pivot.digit().append(fragments, 0);
+        int k = locate(fragments, split.index);
+        return new Split<T>(
+            deepR(deep.l, split.left, digit(fragments, 0, k)),
+            fragments[k],
+            deepL(digit(fragments, k + 1, count), split.right, deep.r),
+            offset(fragments, k, split.index));
+      }
+      index -= deep.m.size();
+      int count = deep.r.append(fragments, 0);
+      int k = locate(fragments, index);
+      return new Split<T>(
+          deepR(deep.l, deep.m, digit(fragments, 0, k)),
+          fragments[k],
+          tree(fragments, k + 1, count),
+          offset(fragments, k, index));
+    }
+
+    /** @return The position of the fragment which contains the index. */
+    static <T> int locate(Fragment<T>[] fragments, int index) {
+      int k = 0;
+      while (index >= fragments[k].size()) {
+        index -= fragments[k].size();
+        k++;
+      }
+      return k;
+    }
+
+    /** @return The index relative to the fragment at the position. */
+    static <T> int offset(Fragment<T>[] fragments, int k, int index) {
+      for (int n = 0; n < k; n++) {
+        index -= fragments[n].size();
+      }
+      return index;
+    }
+
+    /** @return A digit of the fragments, or <code>null</code> if range is empty. */
+    static <T> Digit<T> digit(Fragment<T>[] fragments, int from, int to) {
+      switch (to - from) {
+        case 0:
+          return null;
+        case 1:
+          return new Digit.One<T>(fragments[from]);
+        case 2:
+          return new Digit.Two<T>(fragments[from], fragments[from + 1]);
+        case 3:
+          return new Digit.Three<T>(fragments[from], fragments[from + 1], fragments[from + 2]);
+        default:
+          return new Digit.Four<T>(fragments[from], fragments[from + 1], fragments[from + 2],
+              fragments[from + 3]);
+      }
+    }
+
+    static <T> Tree<T> tree(Fragment<T>[] fragments, int from, int to) {
+      Digit<T> digit = digit(fragments, from, to);
+      if (digit == null) {
+        return new Empty<T>();
+      }
+      return digit.tree();
+    }
+
+    /** Make a tree with possibly empty left digit. */
+    static <T> Tree<T> deepL(Digit<T> l, Tree<T> m, Digit<T> r) {
+      if (l == null) {
+        return m.tree(r);
+      }
+      return new Deep<T>(l, m, r);
+    }
+
+    /** Make a tree with possibly empty right digit. */
+    static <T> Tree<T> deepR(Digit<T> l, Tree<T> m, Digit<T> r) {
+      if (r == null) {
+        return m.treeR(l);
+      }
+      return new Deep<T>(l, m, r);
+    }
+
+    /**
+     * Group at least 2 fragments into nodes of two and three fragments
+     * in place, the array is reused to return the nodes from index 0.
+     *
+     * @return Number of the nodes.
+     */
+    static <T> int nodes(Fragment<T>[] fragments, int from, int to) {
+      int index = from;
+      int size = 0;
+      while (index < to) {
+        switch (to - index) {
+          case 2:
+          case 4:
+            fragments[size++] = new Node.Node2<T>(fragments[index], fragments[index + 1]);
+            index += 2;
+            break;
+          default:
+            fragments[size++] = new Node.Node3<T>(
+                fragments[index], fragments[index + 1], fragments[index + 2]);
+            index += 3;
+            break;
+        }
+      }
+      return size;
+    }
+
+    /**
+     * Build a tree of the fragments bottom-up in linear time,
+     * the array is reused to group the middle fragments into nodes.
+     *
+     * @param fragments The fragments in order.
+     * @param count     Number of the fragments.
+     * @return The tree of the fragments.
+     */
+    static <T> Tree<T> build(Fragment<T>[] fragments, int count) {
+      if (count <= 4) {
+        return tree(fragments, 0, count);
+      }
+      if (count <= 8) {
+        return new Deep<T>(
+            digit(fragments, 0, count / 2),
+            new Empty<T>(),
+            digit(fragments, count / 2, count));
+      }
+      Digit<T> l = digit(fragments, 0, 3);
+      Digit<T> r = digit(fragments, count - 3, count);
+      return new Deep<T>(l, build(fragments, nodes(fragments, 3, count - 3)), r);
+    }
+
     static final class Empty<T> extends Tree<T> {
       @Override
       Single<T> cons(Fragment<T> v) {
@@ -674,6 +1262,21 @@ public final class FingerTreeSeq<T> implements Seq<T> {
         return r.tree();
       }
 
+      @Override
+      Tree<T> init() {
+        throw new RangeException();
+      }
+
+      @Override
+      Digit<T> lastDigit() {
+        throw new IllegalStateException(); // unreachable
+      }
+
+      @Override
+      Tree<T> treeR(Digit<T> l) {
+        return l.tree();
+      }
+
       @Override
       int size() {
         return 0;
@@ -691,6 +1294,9 @@ public final class FingerTreeSeq<T> implements Seq<T> {
 
       @Override
       void accept(Seq.Visitor<T> visitor) {}
+
+      @Override
+      void push(It<T> it) {}
     }
 
     static final class Single<T> extends Tree<T> {
@@ -733,6 +1339,22 @@ public final class FingerTreeSeq<T> implements Seq<T> {
             f.digit(), new Tree.Empty<T>(), r);
       }
 
+      @Override
+      Tree<T> init() {
+        return new Empty<T>();
+      }
+
+      @Override
+      Digit<T> lastDigit() {
+        return f.digit();
+      }
+
+      @Override
+      Tree<T> treeR(Digit<T> l) {
+        return new Tree.Deep<T>(
+            l, new Tree.Empty<T>(), f.digit());
+      }
+
       @Override
       int size() {
         return f.size();
@@ -752,6 +1374,11 @@ public final class FingerTreeSeq<T> implements Seq<T> {
       void accept(Seq.Visitor<T> visitor) {
         f.accept(visitor);
       }
+
+      @Override
+      void push(It<T> it) {
+        it.push(f);
+      }
     }
 
     static final class Deep<T> extends Tree<T> {
@@ -797,6 +1424,21 @@ public final class FingerTreeSeq<T> implements Seq<T> {
         return new Tree.Deep<T>(digit(), tail(), r);
       }
 
+      @Override
+      Tree<T> init() {
+        return r.init(l, m);
+      }
+
+      @Override
+      Digit<T> lastDigit() {
+        return r.lastDigit();
+      }
+
+      @Override
+      Tree<T> treeR(Digit<T> l) {
+        return new Tree.Deep<T>(l, init(), lastDigit());
+      }
+
       @Override
       int size() {
         return size;
@@ -840,6 +1482,97 @@ public final class FingerTreeSeq<T> implements Seq<T> {
         m.accept(visitor);
         r.accept(visitor);
       }
+
+      @Override
+      void push(It<T> it) {
+        it.push(l, m, r);
+      }
+    }
+  }
+
+  /**
+   * Iterator which expands the fragments on an explicit stack
+   * until there is an element on top of it.
+   */
+  private static final class It<T> implements Iterator<T> {
+    final boolean reverse;
+    Fragment<T>[] stack = new Fragment[32];
+    int top;
+
+    It(Tree<T> root, boolean reverse) {
+      this.reverse = reverse;
+      push(root);
+    }
+
+    void push(Fragment<T> a) {
+      stack[top++] = a;
+    }
+
+    void push(Fragment<T> a, Fragment<T> b) {
+      if (reverse) {
+        push(a);
+        push(b);
+      }
+      else {
+        push(b);
+        push(a);
+      }
+    }
+
+    void push(Fragment<T> a, Fragment<T> b, Fragment<T> c) {
+      if (reverse) {
+        push(a);
+        push(b);
+        push(c);
+      }
+      else {
+        push(c);
+        push(b);
+        push(a);
+      }
+    }
+
+    void push(Fragment<T> a, Fragment<T> b, Fragment<T> c, Fragment<T> d) {
+      if (reverse) {
+        push(a);
+        push(b);
+        push(c);
+        push(d);
+      }
+      else {
+        push(d);
+        push(c);
+        push(b);
+        push(a);
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (top > 0 && !(stack[top - 1] instanceof Elem)) {
+        Fragment<T> fragment = stack[--top];
+        stack[top] = null;
+        if (top + 4 > stack.length) {
+          stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+        fragment.push(this);
+      }
+      return top > 0;
+    }
+
+    @Override
+    public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Elem<T> elem = (Elem<T>) stack[--top];
+      stack[top] = null;
+      return elem.v;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
     }
   }
 }
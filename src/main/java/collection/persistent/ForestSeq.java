@@ -1,5 +1,9 @@
 package collection.persistent;
 
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
 /**
  * A persistent random-access list implementation based on the publication
  * <a href="http://www.eecs.usma.edu/webs/people/okasaki/pubs.html#fpca95">Purely
@@ -22,6 +26,30 @@ public final class ForestSeq<T> implements Seq<T> {
     this(new Tree<T>());
   }
 
+  /**
+   * Build a sequence of the array elements in linear time.
+   *
+   * @param elements The elements in order, the first one gets index 0.
+   * @return New sequence.
+   */
+  public static <T> ForestSeq<T> fromArray(T[] elements) {
+    return new ForestSeq<T>(Tree.<T>build(elements, elements.length));
+  }
+
+  /**
+   * Build a sequence of the iterable elements in linear time.
+   *
+   * @param elements The elements in order, the first one gets index 0.
+   * @return New sequence.
+   */
+  public static <T> ForestSeq<T> fromIterable(Iterable<? extends T> elements) {
+    Builder<T> builder = new Builder<T>();
+    for (T v : elements) {
+      builder.add(v);
+    }
+    return builder.build();
+  }
+
   @Override
   public T head()
       throws RangeException {
@@ -82,6 +110,49 @@ public final class ForestSeq<T> implements Seq<T> {
     visitor.after();
   }
 
+  @Override
+  public Iterator<T> iterator() {
+    return new It<T>(head);
+  }
+
+  @Override
+  public Iterator<T> reverseIterator() {
+    return new ReverseIt<T>(head);
+  }
+
+  /**
+   * Builder of {@link ForestSeq} instances which collects the added
+   * elements and builds the forest of complete trees in linear time.
+   *
+   * @param <T> Element type.
+   */
+  public static final class Builder<T> implements Seq.Builder<T> {
+    private Object[] elements = new Object[16];
+    private int count;
+
+    @Override
+    public Builder<T> add(T v) {
+      if (elements == null) {
+        throw new IllegalStateException();
+      }
+      if (count == elements.length) {
+        elements = Arrays.copyOf(elements, count * 2);
+      }
+      elements[count++] = v;
+      return this;
+    }
+
+    @Override
+    public ForestSeq<T> build() {
+      if (elements == null) {
+        throw new IllegalStateException();
+      }
+      Object[] elements = this.elements;
+      this.elements = null;
+      return new ForestSeq<T>(Tree.<T>build(elements, count));
+    }
+  }
+
   private static class Tree<T> {
     final Node<T> root;
     final int size;
@@ -102,6 +173,23 @@ public final class ForestSeq<T> implements Seq<T> {
       this.seqSize = this.next.seqSize + this.size;
     }
 
+    /**
+     * Build the forest of the elements in the canonical skew binary
+     * form, taking the largest complete tree that fits every time.
+     * The smallest trees come first and hold the first elements.
+     */
+    static <T> Tree<T> build(Object[] elements, int count) {
+      Tree<T> tree = new Tree<T>();
+      int to = count;
+      while (to > 0) {
+        int size = (Integer.highestOneBit(to + 1)) - 1;
+        int from = to - size;
+        tree = new Tree<T>(Node.<T>build(elements, from, size), size, tree);
+        to = from;
+      }
+      return tree;
+    }
+
     T head() {
       if (size == 0) {
         throw new RangeException();
@@ -116,8 +204,8 @@ public final class ForestSeq<T> implements Seq<T> {
       if (size == 1) {
         return next;
       }
-      return new Tree<T>(root.l, size - 1,
-          new Tree<T>(root.r, size - 1,
+      return new Tree<T>(root.l, size / 2,
+          new Tree<T>(root.r, size / 2,
               next));
     }
 
@@ -173,6 +261,17 @@ public final class ForestSeq<T> implements Seq<T> {
       this.r = r;
     }
 
+    /** Build a complete tree of the elements in pre-order. */
+    static <T> Node<T> build(Object[] elements, int from, int size) {
+      if (size == 1) {
+        return new Node<T>((T) elements[from], null, null);
+      }
+      size = size / 2;
+      return new Node<T>((T) elements[from],
+          Node.<T>build(elements, from + 1, size),
+          Node.<T>build(elements, from + 1 + size, size));
+    }
+
     T get(int size, int index) {
       if (index == 0) {
         return v;
@@ -192,10 +291,10 @@ public final class ForestSeq<T> implements Seq<T> {
       }
       size = size / 2;
       if (index <= size) {
-        return new Node<T>(v, l.set(size, index - 1, v), r);
+        return new Node<T>(this.v, l.set(size, index - 1, v), r);
       }
       else {
-        return new Node<T>(v, l, r.set(size, index - 1 - size, v));
+        return new Node<T>(this.v, l, r.set(size, index - 1 - size, v));
       }
     }
 
@@ -210,4 +309,99 @@ public final class ForestSeq<T> implements Seq<T> {
       }
     }
   }
+
+  /** Iterator over the trees in order, and over the nodes of every tree in pre-order. */
+  private static final class It<T> implements Iterator<T> {
+    /** The right children on the path to the next node, the next node on top. */
+    final Node<T>[] stack = new Node[Integer.SIZE];
+    Tree<T> tree;
+    int top;
+
+    It(Tree<T> tree) {
+      this.tree = tree;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return top > 0 || tree.size > 0;
+    }
+
+    @Override
+    public T next() {
+      if (top == 0) {
+        if (tree.size == 0) {
+          throw new NoSuchElementException();
+        }
+        stack[top++] = tree.root;
+        tree = tree.next;
+      }
+      Node<T> node = stack[--top];
+      stack[top] = null;
+      if (node.l != null) {
+        stack[top++] = node.r;
+        stack[top++] = node.l;
+      }
+      return node.v;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  /**
+   * Iterator over the trees in reverse order, and over the nodes of every
+   * tree in reverse pre-order, that is the right subtree, the left subtree
+   * and then the node itself.
+   */
+  private static final class ReverseIt<T> implements Iterator<T> {
+    final Tree<T>[] trees;
+    /** The path from the root to the next node. */
+    final Node<T>[] stack = new Node[Integer.SIZE];
+    int count;
+    int top;
+
+    ReverseIt(Tree<T> tree) {
+      trees = new Tree[2 * Integer.SIZE];
+      while (tree.size > 0) {
+        trees[count++] = tree;
+        tree = tree.next;
+      }
+    }
+
+    void pushRight(Node<T> node) {
+      while (node != null) {
+        stack[top++] = node;
+        node = node.r;
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return top > 0 || count > 0;
+    }
+
+    @Override
+    public T next() {
+      if (top == 0) {
+        if (count == 0) {
+          throw new NoSuchElementException();
+        }
+        pushRight(trees[--count].root);
+        trees[count] = null;
+      }
+      Node<T> node = stack[--top];
+      stack[top] = null;
+      if (top > 0 && stack[top - 1].r == node) {
+        pushRight(stack[top - 1].l);
+      }
+      return node.v;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
 }
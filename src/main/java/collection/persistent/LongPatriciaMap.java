@@ -0,0 +1,329 @@
+package collection.persistent;
+
+import javax.annotation.Nullable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A persistent map with primitive <code>long</code> keys based on the big-endian
+ * Patricia trie as described in the publication <em>Fast Mergeable Integer Maps</em>
+ * by <em>Chris Okasaki</em> and <em>Andrew Gill</em>.
+ * <p/>
+ * Unlike {@link PatriciaTrieHashMap} this map branches on the bits of keys
+ * themselves, so keys are never boxed, hashed or compared with
+ * <code>equals()</code>, and there are no collisions. Looking up a key
+ * does not allocate.
+ * <p/>
+ * The entries are iterated in the order of keys treated as unsigned integers,
+ * that is non-negative keys in ascending order followed by negative keys
+ * in ascending order.
+ *
+ * @param <V> Value type.
+ */
+public final class LongPatriciaMap<V> implements Iterable<LongPatriciaMap.Entry<V>> {
+  private final Node<V> root;
+
+  /** Create new empty map instance. */
+  public LongPatriciaMap() {
+    this(null);
+  }
+
+  private LongPatriciaMap(Node<V> root) {
+    this.root = root;
+  }
+
+  /**
+   * @param key A key.
+   * @return The value associated with the key,
+   *         or <code>null</code> if there is no such key.
+   */
+  @Nullable
+  public V get(long key) {
+    Node<V> node = root;
+    while (node instanceof Tree) {
+      Tree<V> tree = (Tree<V>) node;
+      node = (key & tree.mask) == 0 ? tree.left : tree.right;
+    }
+    if (node != null) {
+      Leaf<V> leaf = (Leaf<V>) node;
+      if (leaf.key == key) {
+        return leaf.value;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @param key A key.
+   * @return <code>true</code> if this map has the key,
+   *         <code>false</code> otherwise.
+   */
+  public boolean containsKey(long key) {
+    Node<V> node = root;
+    while (node instanceof Tree) {
+      Tree<V> tree = (Tree<V>) node;
+      node = (key & tree.mask) == 0 ? tree.left : tree.right;
+    }
+    return node != null && ((Leaf<V>) node).key == key;
+  }
+
+  /**
+   * @param key   A key.
+   * @param value A value to associate with the key.
+   * @return Updated map.
+   */
+  public LongPatriciaMap<V> put(long key, V value) {
+    if (root == null) {
+      return new LongPatriciaMap<V>(new Leaf<V>(key, value));
+    }
+    Node<V> result = root.insert(key, value);
+    if (result == root) {
+      return this;
+    }
+    return new LongPatriciaMap<V>(result);
+  }
+
+  /**
+   * @param key A key to remove.
+   * @return Updated map.
+   */
+  public LongPatriciaMap<V> remove(long key) {
+    if (root == null) {
+      return this;
+    }
+    Node<V> result = root.remove(key);
+    if (result == root) {
+      return this;
+    }
+    return new LongPatriciaMap<V>(result);
+  }
+
+  /** @return Number of entries in this map. */
+  public int size() {
+    if (root == null) {
+      return 0;
+    }
+    return root.size();
+  }
+
+  /**
+   * Please note that the returned iterator is not thread-safe
+   * therefore it should not be shared between threads, otherwise
+   * its behaviour is undefined.
+   *
+   * @return A thread-unsafe iterator over map entries.
+   */
+  @Override
+  public Iterator<Entry<V>> iterator() {
+    return new It<V>(root);
+  }
+
+  /**
+   * A map entry with primitive key.
+   *
+   * @param <V> Value type.
+   */
+  public interface Entry<V> {
+    long getKey();
+
+    V getValue();
+  }
+
+  /**
+   * @return The bits of the key above the branching bit,
+   *         with the branching bit and all lower bits cleared.
+   */
+  static long prefix(long key, long mask) {
+    return key & (~(mask - 1) ^ mask);
+  }
+
+  static <V> Node<V> join(long p1, Node<V> t1, long p2, Node<V> t2) {
+    long mask = Long.highestOneBit(p1 ^ p2);
+    if ((p1 & mask) == 0) {
+      return new Tree<V>(prefix(p1, mask), mask, t1, t2);
+    }
+    else {
+      return new Tree<V>(prefix(p1, mask), mask, t2, t1);
+    }
+  }
+
+  private abstract static class Node<V> {
+    abstract int size();
+
+    abstract Node<V> insert(long key, V value);
+
+    @Nullable
+    abstract Node<V> remove(long key);
+  }
+
+  private static final class Leaf<V> extends Node<V> implements Entry<V> {
+    final long key;
+    final V value;
+
+    Leaf(long key, V value) {
+      this.key = key;
+      this.value = value;
+    }
+
+    @Override
+    public long getKey() {
+      return key;
+    }
+
+    @Override
+    public V getValue() {
+      return value;
+    }
+
+    @Override
+    int size() {
+      return 1;
+    }
+
+    @Override
+    Node<V> insert(long key, V value) {
+      if (this.key == key) {
+        if (this.value == value) {
+          return this;
+        }
+        return new Leaf<V>(key, value);
+      }
+      return join(key, new Leaf<V>(key, value), this.key, this);
+    }
+
+    @Override
+    Node<V> remove(long key) {
+      if (this.key == key) {
+        return null;
+      }
+      return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) { return true; }
+      if (!(o instanceof Leaf)) { return false; }
+      Leaf that = (Leaf) o;
+      if (key != that.key) { return false; }
+      if (value != null ? !value.equals(that.value) : that.value != null) { return false; }
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      int result = (int) (key ^ (key >>> 32));
+      result = 31 * result + (value != null ? value.hashCode() : 0);
+      return result;
+    }
+
+    @Override
+    public String toString() {
+      return "key=" + key + "; value=" + value;
+    }
+  }
+
+  private static final class Tree<V> extends Node<V> {
+    final long prefix;
+    final long mask;
+    final Node<V> left, right;
+    final int size;
+
+    Tree(long prefix, long mask, Node<V> left, Node<V> right) {
+      this.prefix = prefix;
+      this.mask = mask;
+      this.left = left;
+      this.right = right;
+      size = left.size() + right.size();
+    }
+
+    @Override
+    int size() {
+      return size;
+    }
+
+    @Override
+    Node<V> insert(long key, V value) {
+      if (prefix(key, mask) != prefix) {
+        return join(key, new Leaf<V>(key, value), prefix, this);
+      }
+      if ((key & mask) == 0) {
+        Node<V> node = left.insert(key, value);
+        if (node == left) {
+          return this;
+        }
+        return new Tree<V>(prefix, mask, node, right);
+      }
+      else {
+        Node<V> node = right.insert(key, value);
+        if (node == right) {
+          return this;
+        }
+        return new Tree<V>(prefix, mask, left, node);
+      }
+    }
+
+    @Override
+    Node<V> remove(long key) {
+      if (prefix(key, mask) != prefix) {
+        return this;
+      }
+      if ((key & mask) == 0) {
+        Node<V> node = left.remove(key);
+        if (node == null) {
+          return right;
+        }
+        if (node == left) {
+          return this;
+        }
+        return new Tree<V>(prefix, mask, node, right);
+      }
+      else {
+        Node<V> node = right.remove(key);
+        if (node == null) {
+          return left;
+        }
+        if (node == right) {
+          return this;
+        }
+        return new Tree<V>(prefix, mask, left, node);
+      }
+    }
+  }
+
+  private static final class It<V> implements Iterator<Entry<V>> {
+    /** The depth of a tree is bounded by the number of key bits. */
+    final Node<V>[] stack = new Node[Long.SIZE + 1];
+    int top;
+
+    It(Node<V> root) {
+      if (root != null) {
+        stack[top++] = root;
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return top > 0;
+    }
+
+    @Override
+    public Entry<V> next() {
+      if (top == 0) {
+        throw new NoSuchElementException();
+      }
+      Node<V> node = stack[--top];
+      while (node instanceof Tree) {
+        Tree<V> tree = (Tree<V>) node;
+        stack[top++] = tree.right;
+        node = tree.left;
+      }
+      stack[top] = null;
+      return (Leaf<V>) node;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
@@ -12,6 +12,13 @@ public interface Map<K, V> extends Listable<Map.Entry<K, V>>,
 
   Map<K, V> remove(K key);
 
+  /**
+   * Get map size in constant time.
+   *
+   * @return Number of entries in this map.
+   */
+  int size();
+
   /**
    * Please note that the returned iterator is not thread-safe
    * therefore it should not be shared between threads, otherwise
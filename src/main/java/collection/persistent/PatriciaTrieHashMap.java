@@ -6,32 +6,174 @@ import javax.annotation.Nullable;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
+/**
+ * A persistent map based on the little-endian Patricia trie over key
+ * hash codes, the data structure is described in the publication
+ * <em>Fast Mergeable Integer Maps</em> by <em>Chris Okasaki</em>
+ * and <em>Andrew Gill</em>.
+ *
+ * @param <K> Key type.
+ * @param <V> Value type.
+ */
 public final class PatriciaTrieHashMap<K, V> implements Map<K, V> {
+  private final Node<K, V> root;
+
+  /** Create new empty map instance. */
+  public PatriciaTrieHashMap() {
+    this(null);
+  }
+
+  private PatriciaTrieHashMap(Node<K, V> root) {
+    this.root = root;
+  }
+
   @Nullable
   @Override
   public V get(K key) {
-    return null;
+    if (root == null) {
+      return null;
+    }
+    return root.find(keyHashCode(key), key);
   }
 
   @Override
-  public Map<K, V> put(K key, V value) {
-    return new Leaf<K, V>(keyHashCode(key), key, value, null);
+  public PatriciaTrieHashMap<K, V> put(K key, V value) {
+    if (root == null) {
+      return new PatriciaTrieHashMap<K, V>(
+          new Leaf<K, V>(keyHashCode(key), key, value, null));
+    }
+    return new PatriciaTrieHashMap<K, V>(root.insert(keyHashCode(key), key, value));
   }
 
   @Override
-  public Map<K, V> remove(K key) {
-    return this;
+  public PatriciaTrieHashMap<K, V> remove(K key) {
+    if (root == null) {
+      return this;
+    }
+    return wrap(root.remove(keyHashCode(key), key), null);
+  }
+
+  @Override
+  public int size() {
+    if (root == null) {
+      return 0;
+    }
+    return root.size();
+  }
+
+  /**
+   * Compute union of this map and that map. If both maps have the same
+   * key then the value from that map is taken, so the result is the same
+   * as putting all entries of that map into this map one by one.
+   * <p/>
+   * The maps are merged structurally, subtrees which are present only
+   * in one of the maps or are shared by both maps are reused untouched,
+   * so merging two versions of the same map costs close to the size
+   * of the difference between them rather than the size of the maps.
+   *
+   * @param that The map to merge with this map.
+   * @return Union of the maps.
+   */
+  public PatriciaTrieHashMap<K, V> union(PatriciaTrieHashMap<K, V> that) {
+    return merge(that, null);
+  }
+
+  /**
+   * Compute union of this map and that map, resolving conflicting values
+   * with the specified resolver. The resolver is not called for entries
+   * which are shared by both maps, that is for subtrees and entries which
+   * are the same objects in both maps, such entries are kept unchanged.
+   *
+   * @param that     The map to merge with this map.
+   * @param resolver Computes value for keys present in both maps,
+   *                 or <code>null</code> to take values from that map.
+   * @return Union of the maps.
+   * @see #union(PatriciaTrieHashMap)
+   */
+  public PatriciaTrieHashMap<K, V> merge(PatriciaTrieHashMap<K, V> that,
+                                         @Nullable Resolver<K, V> resolver) {
+    if (root == null) {
+      return that;
+    }
+    if (that.root == null) {
+      return this;
+    }
+    return wrap(Node.union(root, that.root, resolver), that);
+  }
+
+  /**
+   * Compute intersection of this map and that map. The result has the
+   * keys which are present in both maps, with values from this map.
+   *
+   * @param that The map to intersect with this map.
+   * @return Intersection of the maps.
+   */
+  public PatriciaTrieHashMap<K, V> intersection(PatriciaTrieHashMap<K, V> that) {
+    if (root == null) {
+      return this;
+    }
+    if (that.root == null) {
+      return that;
+    }
+    return wrap(Node.intersection(root, that.root), that);
+  }
+
+  /**
+   * Compute difference of this map and that map. The result has the
+   * entries of this map whose keys are not present in that map.
+   *
+   * @param that The map whose keys to remove from this map.
+   * @return Difference of the maps.
+   */
+  public PatriciaTrieHashMap<K, V> difference(PatriciaTrieHashMap<K, V> that) {
+    if (root == null || that.root == null) {
+      return this;
+    }
+    return wrap(Node.difference(root, that.root), null);
   }
 
   @Override
   public Iterator<Entry<K, V>> iterator() {
-    return new EmptyIterator<Entry<K, V>>();
+    if (root == null) {
+      return new EmptyIterator<Entry<K, V>>();
+    }
+    return new It<K, V>(root);
   }
 
   @Nullable
   @Override
   public List<Entry<K, V>> list() {
-    return null;
+    if (root == null) {
+      return null;
+    }
+    return root.list();
+  }
+
+  private PatriciaTrieHashMap<K, V> wrap(Node<K, V> node,
+                                         @Nullable PatriciaTrieHashMap<K, V> that) {
+    if (node == root) {
+      return this;
+    }
+    if (that != null && node == that.root) {
+      return that;
+    }
+    return new PatriciaTrieHashMap<K, V>(node);
+  }
+
+  /**
+   * Computes value for a key that is present in both merged maps.
+   *
+   * @param <K> Key type.
+   * @param <V> Value type.
+   */
+  public interface Resolver<K, V> {
+    /**
+     * @param key A key present in both maps.
+     * @param a   The value from this map.
+     * @param b   The value from that map.
+     * @return The value to put into the merged map.
+     */
+    V resolve(K key, V a, V b);
   }
 
   private static int keyHashCode(Object key) {
@@ -45,12 +187,180 @@ public final class PatriciaTrieHashMap<K, V> implements Map<K, V> {
     return a == b || a != null && b != null && a.equals(b);
   }
 
-  private abstract static class Node<K, V> implements Map<K, V> {
+  private abstract static class Node<K, V> {
     abstract V find(int hashCode, K key);
 
+    /** @return The entry with the specified key, or <code>null</code>. */
+    abstract Leaf<K, V> findLeaf(int hashCode, K key);
+
     abstract Node<K, V> insert(int hc, K key, V value);
 
     abstract Node<K, V> remove(int hc, K key);
+
+    abstract int size();
+
+    abstract List<Entry<K, V>> list();
+
+    static <K, V> Node<K, V> union(Node<K, V> s, Node<K, V> t, Resolver<K, V> resolver) {
+      if (s == t) {
+        return s;
+      }
+      if (s instanceof Leaf) {
+        for (Leaf<K, V> leaf = (Leaf<K, V>) s; leaf != null; leaf = leaf.next) {
+          t = t.insert(leaf, resolver, true);
+        }
+        return t;
+      }
+      if (t instanceof Leaf) {
+        for (Leaf<K, V> leaf = (Leaf<K, V>) t; leaf != null; leaf = leaf.next) {
+          s = s.insert(leaf, resolver, false);
+        }
+        return s;
+      }
+      Tree<K, V> a = (Tree<K, V>) s;
+      Tree<K, V> b = (Tree<K, V>) t;
+      if (a.bit == b.bit && a.prefix == b.prefix) {
+        Node<K, V> left = union(a.left, b.left, resolver);
+        Node<K, V> right = union(a.right, b.right, resolver);
+        if (left == b.left && right == b.right) {
+          return b;
+        }
+        return a.replace(left, right);
+      }
+      if (a.bit < b.bit && a.matches(b.prefix)) {
+        if (a.isLeft(b.prefix)) {
+          return a.replace(union(a.left, b, resolver), a.right);
+        }
+        else {
+          return a.replace(a.left, union(a.right, b, resolver));
+        }
+      }
+      if (b.bit < a.bit && b.matches(a.prefix)) {
+        if (b.isLeft(a.prefix)) {
+          return b.replace(union(a, b.left, resolver), b.right);
+        }
+        else {
+          return b.replace(b.left, union(a, b.right, resolver));
+        }
+      }
+      return Tree.join(a, b);
+    }
+
+    static <K, V> Node<K, V> intersection(Node<K, V> s, Node<K, V> t) {
+      if (s == t) {
+        return s;
+      }
+      if (s instanceof Leaf) {
+        Leaf<K, V> result = (Leaf<K, V>) s;
+        for (Leaf<K, V> leaf = (Leaf<K, V>) s; leaf != null; leaf = leaf.next) {
+          if (t.findLeaf(leaf.hashCode, leaf.key) == null) {
+            result = result.remove(leaf.hashCode, leaf.key);
+          }
+        }
+        return result;
+      }
+      if (t instanceof Leaf) {
+        Leaf<K, V> result = null;
+        for (Leaf<K, V> leaf = (Leaf<K, V>) t; leaf != null; leaf = leaf.next) {
+          Leaf<K, V> found = s.findLeaf(leaf.hashCode, leaf.key);
+          if (found != null) {
+            if (result == null && leaf.next == null && found.next == null) {
+              return found;
+            }
+            result = new Leaf<K, V>(found.hashCode, found.key, found.value, result);
+          }
+        }
+        return result;
+      }
+      Tree<K, V> a = (Tree<K, V>) s;
+      Tree<K, V> b = (Tree<K, V>) t;
+      if (a.bit == b.bit && a.prefix == b.prefix) {
+        return a.replace(
+            intersection(a.left, b.left),
+            intersection(a.right, b.right));
+      }
+      if (a.bit < b.bit && a.matches(b.prefix)) {
+        return intersection(a.isLeft(b.prefix) ? a.left : a.right, b);
+      }
+      if (b.bit < a.bit && b.matches(a.prefix)) {
+        return intersection(a, b.isLeft(a.prefix) ? b.left : b.right);
+      }
+      return null;
+    }
+
+    static <K, V> Node<K, V> difference(Node<K, V> s, Node<K, V> t) {
+      if (s == t) {
+        return null;
+      }
+      if (s instanceof Leaf) {
+        Leaf<K, V> result = (Leaf<K, V>) s;
+        for (Leaf<K, V> leaf = (Leaf<K, V>) s; leaf != null; leaf = leaf.next) {
+          if (t.findLeaf(leaf.hashCode, leaf.key) != null) {
+            result = result.remove(leaf.hashCode, leaf.key);
+          }
+        }
+        return result;
+      }
+      if (t instanceof Leaf) {
+        for (Leaf<K, V> leaf = (Leaf<K, V>) t; leaf != null && s != null; leaf = leaf.next) {
+          s = s.remove(leaf.hashCode, leaf.key);
+        }
+        return s;
+      }
+      Tree<K, V> a = (Tree<K, V>) s;
+      Tree<K, V> b = (Tree<K, V>) t;
+      if (a.bit == b.bit && a.prefix == b.prefix) {
+        return a.replace(
+            difference(a.left, b.left),
+            difference(a.right, b.right));
+      }
+      if (a.bit < b.bit && a.matches(b.prefix)) {
+        if (a.isLeft(b.prefix)) {
+          return a.replace(difference(a.left, b), a.right);
+        }
+        else {
+          return a.replace(a.left, difference(a.right, b));
+        }
+      }
+      if (b.bit < a.bit && b.matches(a.prefix)) {
+        return difference(a, b.isLeft(a.prefix) ? b.left : b.right);
+      }
+      return a;
+    }
+
+    /**
+     * Insert entry from another map into this node.
+     *
+     * @param leaf     The entry to insert.
+     * @param resolver Computes value if the key is present in this node,
+     *                 the value of the inserted entry is taken if null.
+     * @param left     Whether the inserted entry is from the left
+     *                 argument of the resolver.
+     * @return Updated node.
+     */
+    Node<K, V> insert(Leaf<K, V> leaf, Resolver<K, V> resolver, boolean left) {
+      Leaf<K, V> found = findLeaf(leaf.hashCode, leaf.key);
+      if (found == null) {
+        return insert(leaf.hashCode, leaf.key, leaf.value);
+      }
+      if (found == leaf) {
+        return this;
+      }
+      V value;
+      if (resolver == null) {
+        value = left ? found.value : leaf.value;
+      }
+      else if (left) {
+        value = resolver.resolve(leaf.key, leaf.value, found.value);
+      }
+      else {
+        value = resolver.resolve(leaf.key, found.value, leaf.value);
+      }
+      if (value == found.value) {
+        return this;
+      }
+      return insert(leaf.hashCode, leaf.key, value);
+    }
   }
 
   private static final class Leaf<K, V> extends Node<K, V>
@@ -59,12 +369,14 @@ public final class PatriciaTrieHashMap<K, V> implements Map<K, V> {
     final K key;
     final V value;
     final Leaf<K, V> next;
+    final int size;
 
     Leaf(int hashCode, K key, V value, Leaf<K, V> next) {
       this.hashCode = hashCode;
       this.key = key;
       this.value = value;
       this.next = next;
+      size = next != null ? next.size + 1 : 1;
     }
 
     @Override
@@ -78,34 +390,12 @@ public final class PatriciaTrieHashMap<K, V> implements Map<K, V> {
     }
 
     @Override
-    public V get(K key) {
-      int hc = keyHashCode(key);
-      return find(hc, key);
-    }
-
-    @Override
-    public Map<K, V> put(K key, V value) {
-      int hc = keyHashCode(key);
-      return insert(hc, key, value);
-    }
-
-    @Override
-    public Map<K, V> remove(K key) {
-      int hc = keyHashCode(key);
-      Leaf<K, V> result = remove(hc, key);
-      if (result == null) {
-        return new PatriciaTrieHashMap<K, V>();
-      }
-      return result;
-    }
-
-    @Override
-    public Iterator<Entry<K, V>> iterator() {
-      return new It<K, V>(this);
+    int size() {
+      return size;
     }
 
     @Override
-    public List<Entry<K, V>> list() {
+    List<Entry<K, V>> list() {
       return new ListImpl<K, V>(null, this);
     }
 
@@ -120,6 +410,16 @@ public final class PatriciaTrieHashMap<K, V> implements Map<K, V> {
       return next.find(hashCode, key);
     }
 
+    @Override
+    Leaf<K, V> findLeaf(int hashCode, K key) {
+      for (Leaf<K, V> leaf = this; leaf != null; leaf = leaf.next) {
+        if (leaf.hashCode == hashCode && keysEqual(leaf.key, key)) {
+          return leaf;
+        }
+      }
+      return null;
+    }
+
     @Override
     Node<K, V> insert(int hashCode, K key, V value) {
       if (this.hashCode == hashCode) {
@@ -174,12 +474,14 @@ public final class PatriciaTrieHashMap<K, V> implements Map<K, V> {
     final byte bit;
     final int prefix;
     final Node<K, V> left, right;
+    final int size;
 
     Tree(byte bit, int prefix, Node<K, V> left, Node<K, V> right) {
       this.bit = bit;
       this.prefix = prefix;
       this.left = left;
       this.right = right;
+      size = left.size() + right.size();
     }
 
     Tree(Leaf<K, V> l, Leaf<K, V> r) {
@@ -193,24 +495,59 @@ public final class PatriciaTrieHashMap<K, V> implements Map<K, V> {
         left = r;
         right = l;
       }
+      size = l.size + r.size;
+    }
+
+    /**
+     * Join two trees with disjoint prefixes under a new tree
+     * branching on the lowest bit where the prefixes differ.
+     */
+    static <K, V> Tree<K, V> join(Tree<K, V> a, Tree<K, V> b) {
+      byte bit = (byte) Integer.numberOfTrailingZeros(a.prefix ^ b.prefix);
+      int prefix = a.prefix & ((1 << bit) - 1);
+      if ((a.prefix & (1 << bit)) == 0) {
+        return new Tree<K, V>(bit, prefix, a, b);
+      }
+      else {
+        return new Tree<K, V>(bit, prefix, b, a);
+      }
     }
 
-    @Override
-    public V get(K key) {
-      int hc = keyHashCode(key);
-      return find(hc, key);
+    /** @return Whether the hash code has the prefix of this tree. */
+    boolean matches(int hc) {
+      return (hc & ((1 << bit) - 1)) == prefix;
+    }
+
+    /** @return Whether the hash code belongs to the left subtree. */
+    boolean isLeft(int hc) {
+      return (hc & (1 << bit)) == 0;
+    }
+
+    /**
+     * @return This tree if the subtrees are the same, a subtree if the other
+     *         one is empty, or a new tree with the specified subtrees.
+     */
+    Node<K, V> replace(Node<K, V> left, Node<K, V> right) {
+      if (left == null) {
+        return right;
+      }
+      if (right == null) {
+        return left;
+      }
+      if (left == this.left && right == this.right) {
+        return this;
+      }
+      return new Tree<K, V>(bit, prefix, left, right);
     }
 
     @Override
-    public Map<K, V> put(K key, V value) {
-      int hc = keyHashCode(key);
-      return insert(hc, key, value);
+    int size() {
+      return size;
     }
 
     @Override
-    public Map<K, V> remove(K key) {
-      int hc = keyHashCode(key);
-      return remove(hc, key);
+    List<Entry<K, V>> list() {
+      return new ListParent<K, V>(null, this, false).findLeaf();
     }
 
     @Override
@@ -226,6 +563,19 @@ public final class PatriciaTrieHashMap<K, V> implements Map<K, V> {
       }
     }
 
+    @Override
+    Leaf<K, V> findLeaf(int hashCode, K key) {
+      Node<K, V> node = this;
+      while (node instanceof Tree) {
+        Tree<K, V> tree = (Tree<K, V>) node;
+        if (!tree.matches(hashCode)) {
+          return null;
+        }
+        node = tree.isLeft(hashCode) ? tree.left : tree.right;
+      }
+      return ((Leaf<K, V>) node).findLeaf(hashCode, key);
+    }
+
     @Override
     Node<K, V> insert(int hc, K key, V value) {
       int p = hc & ((1 << bit) - 1);
@@ -278,16 +628,6 @@ public final class PatriciaTrieHashMap<K, V> implements Map<K, V> {
         return this;
       }
     }
-
-    @Override
-    public Iterator<Entry<K, V>> iterator() {
-      return new It<K, V>(this);
-    }
-
-    @Override
-    public List<Entry<K, V>> list() {
-      return new ListParent<K, V>(null, this, false).findLeaf();
-    }
   }
 
   private static final class ListParent<K, V> {
@@ -0,0 +1,124 @@
+package collection.persistent;
+
+import collection.persistent.fingertree.FingerTree;
+import collection.persistent.fingertree.Measured;
+import collection.persistent.fingertree.Monoid.IntegerMin;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A persistent priority queue based on the finger tree annotated with
+ * the minimal priority of elements, as described in the publication
+ * <a href="http://www.soi.city.ac.uk/~ross/papers/FingerTree.html">Finger
+ * Trees: A Simple General-purpose Data Structure</a> by Ralf Hinze and
+ * Ross Paterson.
+ * <p/>
+ * Elements with smaller priority values come out first, elements
+ * with the same priority come out in the order of insertion.
+ * The element with the minimal priority is cached, so peek takes
+ * constant time, push takes amortized constant time and pop takes
+ * logarithmic time.
+ *
+ * @param <T> Element type.
+ */
+public final class PriorityQueue<T> {
+  private final FingerTree<IntegerMin, Item<T>> tree;
+  private final int size;
+  private final Item<T> min;
+
+  /** Create new empty queue instance. */
+  public PriorityQueue() {
+    this(new FingerTree.Empty<IntegerMin, Item<T>>(IntegerMin.UNIT), 0, null);
+  }
+
+  private PriorityQueue(FingerTree<IntegerMin, Item<T>> tree, int size, Item<T> min) {
+    this.tree = tree;
+    this.size = size;
+    this.min = min;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * @param priority Element priority, smaller values come out first.
+   * @param v        An element to insert.
+   * @return Updated queue.
+   */
+  public PriorityQueue<T> push(int priority, T v) {
+    Item<T> item = new Item<T>(priority, v);
+    return new PriorityQueue<T>(tree.snoc(item), size + 1,
+        min == null || priority < min.priority ? item : min);
+  }
+
+  /**
+   * @return The element with the minimal priority.
+   * @throws NoSuchElementException If queue is empty.
+   */
+  public T peek() {
+    if (min == null) {
+      throw new NoSuchElementException();
+    }
+    return min.v;
+  }
+
+  /**
+   * @return The minimal priority.
+   * @throws NoSuchElementException If queue is empty.
+   */
+  public int peekPriority() {
+    if (min == null) {
+      throw new NoSuchElementException();
+    }
+    return min.priority;
+  }
+
+  /**
+   * @return The queue without the element with the minimal priority.
+   * @throws NoSuchElementException If queue is empty.
+   */
+  public PriorityQueue<T> pop() {
+    if (min == null) {
+      throw new NoSuchElementException();
+    }
+    if (size == 1) {
+      return new PriorityQueue<T>();
+    }
+    FingerTree.Split<IntegerMin, Item<T>> split = tree.split(atMost(min.priority));
+    FingerTree<IntegerMin, Item<T>> rest =
+        FingerTree.concat(split.left(), split.right().viewL().tree());
+    Item<T> next = rest.search(atMost(rest.measure().intValue())).elem();
+    return new PriorityQueue<T>(rest, size - 1, next);
+  }
+
+  private static FingerTree.Predicate<IntegerMin> atMost(final int priority) {
+    return new FingerTree.Predicate<IntegerMin>() {
+      @Override
+      public boolean test(IntegerMin measure) {
+        return measure.intValue() <= priority;
+      }
+    };
+  }
+
+  private static final class Item<T> implements Measured<IntegerMin> {
+    final int priority;
+    final T v;
+    final IntegerMin m;
+
+    Item(int priority, T v) {
+      this.priority = priority;
+      this.v = v;
+      m = new IntegerMin(priority);
+    }
+
+    @Override
+    public IntegerMin measure() {
+      return m;
+    }
+  }
+}
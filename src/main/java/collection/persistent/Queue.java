@@ -1,5 +1,7 @@
 package collection.persistent;
 
+import java.util.Collection;
+
 public interface Queue<T> {
   int size();
 
@@ -7,7 +9,43 @@ public interface Queue<T> {
 
   Queue<T> push(T v);
 
+  /**
+   * Push elements at once, which rebalances the queue once per batch
+   * rather than once per element where the queue allows that.
+   *
+   * @param values Elements to push, in order.
+   * @return Updated queue.
+   */
+  Queue<T> pushAll(Iterable<? extends T> values);
+
+  /**
+   * @param values Elements to push, in order.
+   * @return Updated queue.
+   * @see #pushAll(Iterable)
+   */
+  Queue<T> pushAll(T[] values);
+
   T peek();
 
   Queue<T> pop();
+
+  /**
+   * @param n The number of elements to pop.
+   * @return The queue without the first n elements.
+   * @throws IllegalArgumentException If n is negative.
+   * @throws java.util.NoSuchElementException If queue has less than n elements.
+   */
+  Queue<T> popN(int n);
+
+  /**
+   * Pop at most the specified number of elements and add them
+   * to a collection in order.
+   *
+   * @param c   A collection to add popped elements to.
+   * @param max The maximal number of elements to pop.
+   * @return The queue without the popped elements.
+   * @throws NullPointerException     If collection is null.
+   * @throws IllegalArgumentException If max is negative.
+   */
+  Queue<T> drainTo(Collection<? super T> c, int max);
 }
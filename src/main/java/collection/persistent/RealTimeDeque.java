@@ -0,0 +1,184 @@
+package collection.persistent;
+
+import collection.persistent.lazy.Cell;
+import collection.persistent.lazy.Tail;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Persistent double-ended queue with constant time operations in the
+ * worst case, as described in the book <i>Purely Functional Data
+ * Structures</i> by Chris Okasaki.
+ * <p/>
+ * Same as {@link BankersDeque}, but the rebalancing reverses the longer
+ * stream incrementally, a few elements at a time, and every operation
+ * forces a few cells of both streams ahead of time, so no operation
+ * ever has to force a long suspension.
+ *
+ * @param <T> Element type.
+ */
+public final class RealTimeDeque<T> implements Deque<T> {
+  static final int C = 3;
+  private final int sf;
+  private final Cell<T> f;
+  private final Cell<T> ssf;
+  private final int sr;
+  private final Cell<T> r;
+  private final Cell<T> ssr;
+
+  public RealTimeDeque() {
+    this(0, null, null, 0, null, null);
+  }
+
+  private RealTimeDeque(int sf, Cell<T> f, Cell<T> ssf, int sr, Cell<T> r, Cell<T> ssr) {
+    this.sf = sf;
+    this.f = f;
+    this.ssf = ssf;
+    this.sr = sr;
+    this.r = r;
+    this.ssr = ssr;
+  }
+
+  @Override
+  public int size() {
+    return sf + sr;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return sf + sr == 0;
+  }
+
+  @Override
+  public RealTimeDeque<T> cons(T v) {
+    return check(sf + 1, new Cell<T>(v, f), exec1(ssf), sr, r, exec1(ssr));
+  }
+
+  @Override
+  public T head() {
+    if (f == null) {
+      if (r == null) {
+        throw new NoSuchElementException();
+      }
+      return r.value();
+    }
+    return f.value();
+  }
+
+  @Override
+  public RealTimeDeque<T> tail() {
+    if (f == null) {
+      if (r == null) {
+        throw new NoSuchElementException();
+      }
+      return new RealTimeDeque<T>();
+    }
+    return check(sf - 1, f.tail(), exec2(ssf), sr, r, exec2(ssr));
+  }
+
+  @Override
+  public RealTimeDeque<T> snoc(T v) {
+    return check(sf, f, exec1(ssf), sr + 1, new Cell<T>(v, r), exec1(ssr));
+  }
+
+  @Override
+  public T last() {
+    if (r == null) {
+      if (f == null) {
+        throw new NoSuchElementException();
+      }
+      return f.value();
+    }
+    return r.value();
+  }
+
+  @Override
+  public RealTimeDeque<T> init() {
+    if (r == null) {
+      if (f == null) {
+        throw new NoSuchElementException();
+      }
+      return new RealTimeDeque<T>();
+    }
+    return check(sf, f, exec2(ssf), sr - 1, r.tail(), exec2(ssr));
+  }
+
+  private static <T> RealTimeDeque<T> check(int sf, Cell<T> f, Cell<T> ssf,
+                                            int sr, Cell<T> r, Cell<T> ssr) {
+    if (sf > C * sr + 1) {
+      int i = (sf + sr) / 2;
+      Cell<T> nf = Cell.take(f, i);
+      Cell<T> nr = rotateDrop(r, i, f);
+      return new RealTimeDeque<T>(i, nf, nf, sf + sr - i, nr, nr);
+    }
+    else if (sr > C * sf + 1) {
+      int j = (sf + sr) / 2;
+      Cell<T> nr = Cell.take(r, j);
+      Cell<T> nf = rotateDrop(f, j, r);
+      return new RealTimeDeque<T>(sf + sr - j, nf, nf, j, nr, nr);
+    }
+    else {
+      return new RealTimeDeque<T>(sf, f, ssf, sr, r, ssr);
+    }
+  }
+
+  private static <T> Cell<T> exec1(Cell<T> s) {
+    return s == null ? null : s.tail();
+  }
+
+  private static <T> Cell<T> exec2(Cell<T> s) {
+    return exec1(exec1(s));
+  }
+
+  /**
+   * @return Stream x followed by the reversal of stream y
+   *         without the first j elements.
+   */
+  private static <T> Cell<T> rotateDrop(final Cell<T> x, final int j, final Cell<T> y) {
+    if (j < C) {
+      return rotateRev(x, drop(y, j), null);
+    }
+    else {
+      return new Cell<T>(x.value(), new Tail<T>() {
+        @Override
+        public Cell<T> eval() {
+          return rotateDrop(x.tail(), j - C, drop(y, C));
+        }
+      });
+    }
+  }
+
+  /**
+   * @return Stream x followed by the reversal of stream y,
+   *         followed by stream a.
+   */
+  private static <T> Cell<T> rotateRev(final Cell<T> x, final Cell<T> y, final Cell<T> a) {
+    if (x == null) {
+      return reverse(y, Integer.MAX_VALUE, a);
+    }
+    else {
+      return new Cell<T>(x.value(), new Tail<T>() {
+        @Override
+        public Cell<T> eval() {
+          return rotateRev(x.tail(), drop(y, C), reverse(y, C, a));
+        }
+      });
+    }
+  }
+
+  private static <T> Cell<T> drop(Cell<T> c, int n) {
+    for (; c != null && n > 0; n--) {
+      c = c.tail();
+    }
+    return c;
+  }
+
+  /** @return The first n elements of stream c in reverse order, followed by stream a. */
+  private static <T> Cell<T> reverse(Cell<T> c, int n, Cell<T> a) {
+    for (; c != null && n > 0; n--) {
+      a = new Cell<T>(c.value(), a);
+      c = c.tail();
+    }
+    return a;
+  }
+}
@@ -3,6 +3,8 @@ package collection.persistent;
 import collection.persistent.lazy.Cell;
 import collection.persistent.lazy.Tail;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.NoSuchElementException;
 
 public final class RealTimeQueue<T> implements Queue<T> {
@@ -37,6 +39,33 @@ public final class RealTimeQueue<T> implements Queue<T> {
     return exec(new Cell<T>(v, b), f, s, size + 1);
   }
 
+  @Override
+  public RealTimeQueue<T> pushAll(Iterable<? extends T> values) {
+    // The schedule has to advance on every element to keep the worst
+    // case bounds, so only the intermediate queue objects are saved.
+    Cell<T> b = this.b;
+    Cell<T> f = this.f;
+    Cell<T> s = this.s;
+    int size = this.size;
+    for (T v : values) {
+      size++;
+      b = new Cell<T>(v, b);
+      if (s == null) {
+        f = s = rotate(f, b, null);
+        b = null;
+      }
+      else {
+        s = s.tail();
+      }
+    }
+    return new RealTimeQueue<T>(b, f, s, size);
+  }
+
+  @Override
+  public RealTimeQueue<T> pushAll(T[] values) {
+    return pushAll(Arrays.asList(values));
+  }
+
   @Override
   public T peek() {
     if (f == null) {
@@ -53,6 +82,49 @@ public final class RealTimeQueue<T> implements Queue<T> {
     return exec(b, f.tail(), s, size - 1);
   }
 
+  @Override
+  public RealTimeQueue<T> popN(int n) {
+    if (n < 0) {
+      throw new IllegalArgumentException();
+    }
+    if (n > size()) {
+      throw new NoSuchElementException();
+    }
+    return drain(null, n);
+  }
+
+  @Override
+  public RealTimeQueue<T> drainTo(Collection<? super T> c, int max) {
+    if (c == null) {
+      throw new NullPointerException();
+    }
+    if (max < 0) {
+      throw new IllegalArgumentException();
+    }
+    return drain(c, Math.min(max, size()));
+  }
+
+  /** Pop n elements, adding them to the collection unless it is null. */
+  private RealTimeQueue<T> drain(Collection<? super T> c, int n) {
+    Cell<T> b = this.b;
+    Cell<T> f = this.f;
+    Cell<T> s = this.s;
+    for (int k = 0; k < n; k++) {
+      if (c != null) {
+        c.add(f.value());
+      }
+      f = f.tail();
+      if (s == null) {
+        f = s = rotate(f, b, null);
+        b = null;
+      }
+      else {
+        s = s.tail();
+      }
+    }
+    return new RealTimeQueue<T>(b, f, s, size - n);
+  }
+
   private static <T> RealTimeQueue<T> exec(Cell<T> b, Cell<T> f, Cell<T> s, int size) {
     if (s == null) {
       Cell<T> r = rotate(f, b, null);
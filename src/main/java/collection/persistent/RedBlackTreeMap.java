@@ -2,7 +2,12 @@ package collection.persistent;
 
 import collection.persistent.util.EmptyIterator;
 
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 /**
  * A persistent map for ordered keys implemented
@@ -14,47 +19,341 @@ import java.util.Iterator;
  * @param <V> Value type.
  */
 public final class RedBlackTreeMap<K extends Comparable<K>, V> implements Map<K, V> {
+  private final Tree<K, V> root;
+
+  /** Create new empty map instance. */
+  public RedBlackTreeMap() {
+    this(null);
+  }
+
+  private RedBlackTreeMap(Tree<K, V> root) {
+    this.root = root;
+  }
+
+  /**
+   * Build map from keys sorted in the strictly ascending order
+   * in linear time, allocating exactly one node per key.
+   *
+   * @param keys   Sorted distinct keys.
+   * @param values Values for the keys with the same indexes.
+   * @param <K>    Key type.
+   * @param <V>    Value type.
+   * @return A new map with the specified keys and values.
+   * @throws IllegalArgumentException If arrays have different length,
+   *                                  or keys are not sorted or distinct.
+   */
+  public static <K extends Comparable<K>, V> RedBlackTreeMap<K, V> fromSorted(
+      K[] keys, V[] values) {
+    if (keys.length != values.length) {
+      throw new IllegalArgumentException();
+    }
+    for (int n = 0; n < keys.length; n++) {
+      if (keys[n] == null) {
+        throw new NullPointerException();
+      }
+      if (n > 0 && keys[n - 1].compareTo(keys[n]) >= 0) {
+        throw new IllegalArgumentException("keys are not sorted");
+      }
+    }
+    return new RedBlackTreeMap<K, V>(Tree.<K, V>build(keys, values, 0, keys.length,
+        Tree.blackHeight(keys.length)));
+  }
+
   @Override
   public V get(K key) {
     if (key == null) {
       throw new NullPointerException();
     }
-    return null;
+    return Tree.find(root, key);
   }
 
   @Override
-  public Map<K, V> put(K key, V value) {
+  public RedBlackTreeMap<K, V> put(K key, V value) {
     if (key == null) {
       throw new NullPointerException();
     }
-    return Tree.insert(null, key, value);
+    return new RedBlackTreeMap<K, V>(Tree.blacken(Tree.insert(root, key, value)));
   }
 
   @Override
-  public Map<K, V> remove(K key) {
+  public RedBlackTreeMap<K, V> remove(K key) {
     if (key == null) {
       throw new NullPointerException();
     }
-    return this;
+    if (!Tree.contains(root, key)) {
+      return this;
+    }
+    Tree<K, V> tree = root;
+    if (!Tree.isRed(tree.left) && !Tree.isRed(tree.right)) {
+      tree = tree.withColor(Tree.RED);
+    }
+    return new RedBlackTreeMap<K, V>(Tree.blacken(Tree.delete(tree, key)));
+  }
+
+  @Override
+  public int size() {
+    return Tree.size(root);
   }
 
   @Override
   public Iterator<Entry<K, V>> iterator() {
-    return new EmptyIterator<Entry<K, V>>();
+    if (root == null) {
+      return new EmptyIterator<Entry<K, V>>();
+    }
+    return new It<K, V>(root, null, null);
+  }
+
+  /** @return The entry with the least key, or <code>null</code> if map is empty. */
+  @Nullable
+  public Entry<K, V> first() {
+    Tree<K, V> tree = root;
+    if (tree == null) {
+      return null;
+    }
+    while (tree.left != null) {
+      tree = tree.left;
+    }
+    return tree;
+  }
+
+  /** @return The entry with the greatest key, or <code>null</code> if map is empty. */
+  @Nullable
+  public Entry<K, V> last() {
+    Tree<K, V> tree = root;
+    if (tree == null) {
+      return null;
+    }
+    while (tree.right != null) {
+      tree = tree.right;
+    }
+    return tree;
+  }
+
+  /**
+   * @param key A key to search for.
+   * @return The entry with the greatest key less than or equal
+   *         to the specified key, or <code>null</code>.
+   */
+  @Nullable
+  public Entry<K, V> floor(K key) {
+    if (key == null) {
+      throw new NullPointerException();
+    }
+    Tree<K, V> tree = root;
+    Tree<K, V> result = null;
+    while (tree != null) {
+      int i = key.compareTo(tree.key);
+      if (i < 0) {
+        tree = tree.left;
+      }
+      else if (i > 0) {
+        result = tree;
+        tree = tree.right;
+      }
+      else {
+        return tree;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @param key A key to search for.
+   * @return The entry with the least key greater than or equal
+   *         to the specified key, or <code>null</code>.
+   */
+  @Nullable
+  public Entry<K, V> ceiling(K key) {
+    if (key == null) {
+      throw new NullPointerException();
+    }
+    Tree<K, V> tree = root;
+    Tree<K, V> result = null;
+    while (tree != null) {
+      int i = key.compareTo(tree.key);
+      if (i < 0) {
+        result = tree;
+        tree = tree.left;
+      }
+      else if (i > 0) {
+        tree = tree.right;
+      }
+      else {
+        return tree;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Get a view of the entries with keys in the specified range.
+   * The view is lazy, nothing is copied, every iteration walks
+   * the tree only along the range, in the ascending key order.
+   *
+   * @param from The least key of the range, inclusive,
+   *             or <code>null</code> for no lower bound.
+   * @param to   The greatest key of the range, exclusive,
+   *             or <code>null</code> for no upper bound.
+   * @return The entries with keys in the range.
+   */
+  public Iterable<Entry<K, V>> subMap(@Nullable final K from, @Nullable final K to) {
+    return new Iterable<Entry<K, V>>() {
+      @Override
+      public Iterator<Entry<K, V>> iterator() {
+        if (root == null) {
+          return new EmptyIterator<Entry<K, V>>();
+        }
+        return new It<K, V>(root, from, to);
+      }
+    };
+  }
+
+  /**
+   * @param key A key to search for, it does not have to be in the map.
+   * @return Number of keys in the map less than the specified key.
+   */
+  public int rank(K key) {
+    if (key == null) {
+      throw new NullPointerException();
+    }
+    Tree<K, V> tree = root;
+    int rank = 0;
+    while (tree != null) {
+      int i = key.compareTo(tree.key);
+      if (i < 0) {
+        tree = tree.left;
+      }
+      else if (i > 0) {
+        rank += Tree.size(tree.left) + 1;
+        tree = tree.right;
+      }
+      else {
+        return rank + Tree.size(tree.left);
+      }
+    }
+    return rank;
+  }
+
+  /**
+   * @param index Position of an entry in the ascending key order.
+   * @return The entry at the specified position.
+   * @throws IndexOutOfBoundsException If index is out of range.
+   */
+  public Entry<K, V> select(int index) {
+    if (index < 0 || index >= size()) {
+      throw new IndexOutOfBoundsException();
+    }
+    Tree<K, V> tree = root;
+    while (true) {
+      int size = Tree.size(tree.left);
+      if (index < size) {
+        tree = tree.left;
+      }
+      else if (index > size) {
+        index -= size + 1;
+        tree = tree.right;
+      }
+      else {
+        return tree;
+      }
+    }
   }
 
   @Override
   public List<Entry<K, V>> list() {
-    return null;
+    if (root == null) {
+      return null;
+    }
+    return new ListImpl<K, V>(null, root).findLeaf();
+  }
+
+  /** @return Number of nodes on the longest path from the root to a leaf. */
+  int height() {
+    return Tree.height(root);
+  }
+
+  /**
+   * @return Whether the tree is a valid left-leaning red-black tree:
+   *         the root is black, red nodes are only left children of black
+   *         nodes, and all paths have the same number of black nodes.
+   */
+  boolean isValid() {
+    return !Tree.isRed(root) && Tree.checkBlackHeight(root) >= 0;
+  }
+
+  /**
+   * Builder of {@link RedBlackTreeMap} instances which buffers the added
+   * entries, sorts them once and builds the tree bottom-up in linear time.
+   * If the same key is added more than once then the last value wins.
+   *
+   * @param <K> Key type.
+   * @param <V> Value type.
+   */
+  public static final class Builder<K extends Comparable<K>, V>
+      implements Map.Builder<K, V> {
+    private ArrayList<K> keys = new ArrayList<K>();
+    private ArrayList<V> values = new ArrayList<V>();
+
+    @Override
+    public Builder<K, V> put(K key, V value) {
+      if (keys == null) {
+        throw new IllegalStateException();
+      }
+      if (key == null) {
+        throw new NullPointerException();
+      }
+      keys.add(key);
+      values.add(value);
+      return this;
+    }
+
+    @Override
+    public RedBlackTreeMap<K, V> build() {
+      if (keys == null) {
+        throw new IllegalStateException();
+      }
+      final ArrayList<K> keys = this.keys;
+      ArrayList<V> values = this.values;
+      this.keys = null;
+      this.values = null;
+      Integer[] order = new Integer[keys.size()];
+      for (int n = 0; n < order.length; n++) {
+        order[n] = n;
+      }
+      // The sort is stable, so the last added value for
+      // a key is the last one in the run of equal keys.
+      Arrays.sort(order, new Comparator<Integer>() {
+        @Override
+        public int compare(Integer a, Integer b) {
+          return keys.get(a).compareTo(keys.get(b));
+        }
+      });
+      Object[] sortedKeys = new Object[order.length];
+      Object[] sortedValues = new Object[order.length];
+      int size = 0;
+      for (int n = 0; n < order.length; n++) {
+        K key = keys.get(order[n]);
+        if (size > 0 && ((K) sortedKeys[size - 1]).compareTo(key) == 0) {
+          size--;
+        }
+        sortedKeys[size] = key;
+        sortedValues[size] = values.get(order[n]);
+        size++;
+      }
+      return new RedBlackTreeMap<K, V>(Tree.<K, V>build(sortedKeys, sortedValues, 0, size,
+          Tree.blackHeight(size)));
+    }
   }
 
   private static final class Tree<K extends Comparable<K>, V>
-      implements Map<K, V>, Entry<K, V> {
+      implements Entry<K, V> {
     static final boolean RED = true;
+    static final boolean BLACK = false;
     final K key;
     final V value;
     final Tree<K, V> left, right;
     final boolean color;
+    final int size;
 
     Tree(K key, V value) {
       this.key = key;
@@ -62,6 +361,7 @@ public final class RedBlackTreeMap<K extends Comparable<K>, V> implements Map<K,
       left = null;
       right = null;
       color = RED;
+      size = 1;
     }
 
     Tree(K key, V value,
@@ -71,6 +371,7 @@ public final class RedBlackTreeMap<K extends Comparable<K>, V> implements Map<K,
       this.left = left;
       this.right = right;
       this.color = color;
+      size = size(left) + size(right) + 1;
     }
 
     Tree<K, V> replaceLeft(Tree<K, V> left) {
@@ -85,6 +386,10 @@ public final class RedBlackTreeMap<K extends Comparable<K>, V> implements Map<K,
       return new Tree<K, V>(key, value, left, right, color);
     }
 
+    Tree<K, V> withColor(boolean color) {
+      return new Tree<K, V>(key, value, left, right, color);
+    }
+
     @Override
     public K getKey() {
       return key;
@@ -99,9 +404,6 @@ public final class RedBlackTreeMap<K extends Comparable<K>, V> implements Map<K,
       if (t == null) {
         return new Tree<K, V>(key, value);
       }
-      if (isRed(t.left) && isRed(t.right)) {
-        t = t.flipColors();
-      }
       int cmp = key.compareTo(t.key);
       if (cmp < 0) {
         t = t.replaceLeft(insert(t.left, key, value));
@@ -110,21 +412,182 @@ public final class RedBlackTreeMap<K extends Comparable<K>, V> implements Map<K,
         t = t.replaceRight(insert(t.right, key, value));
       }
       else {
-        t = t.replaceValue(key, value);
+        return t.replaceValue(key, value);
       }
+      return t.fixUp();
+    }
+
+    /**
+     * Delete key from the tree. The key must be present in the tree,
+     * and either the tree or its left child must be red.
+     */
+    static <K extends Comparable<K>, V> Tree<K, V> delete(Tree<K, V> t, K key) {
+      if (key.compareTo(t.key) < 0) {
+        if (!isRed(t.left) && !isRed(t.left.left)) {
+          t = t.moveRedLeft();
+        }
+        t = t.replaceLeft(delete(t.left, key));
+      }
+      else {
+        if (isRed(t.left)) {
+          t = t.rotateRight();
+        }
+        int cmp = key.compareTo(t.key);
+        if (cmp == 0 && t.right == null) {
+          return null;
+        }
+        if (!isRed(t.right) && !isRed(t.right.left)) {
+          t = t.moveRedRight();
+          cmp = key.compareTo(t.key);
+        }
+        if (cmp == 0) {
+          Tree<K, V> min = min(t.right);
+          t = new Tree<K, V>(min.key, min.value, t.left, deleteMin(t.right), t.color);
+        }
+        else {
+          t = t.replaceRight(delete(t.right, key));
+        }
+      }
+      return t.fixUp();
+    }
+
+    static <K extends Comparable<K>, V> Tree<K, V> deleteMin(Tree<K, V> t) {
+      if (t.left == null) {
+        return null;
+      }
+      if (!isRed(t.left) && !isRed(t.left.left)) {
+        t = t.moveRedLeft();
+      }
+      return t.replaceLeft(deleteMin(t.left)).fixUp();
+    }
+
+    /**
+     * Build tree from sorted keys as a 2-3 tree of the specified black
+     * height. A range is split into a 2-node, or into a 3-node with the
+     * red left child if the children would not fit the black height.
+     */
+    static <K extends Comparable<K>, V> Tree<K, V> build(
+        Object[] keys, Object[] values, int lo, int hi, int blackHeight) {
+      int n = hi - lo;
+      if (n == 0) {
+        return null;
+      }
+      if (n - 1 <= 2L * capacity(blackHeight - 1)) {
+        int mid = lo + (n - 1) / 2;
+        return new Tree<K, V>((K) keys[mid], (V) values[mid],
+            Tree.<K, V>build(keys, values, lo, mid, blackHeight - 1),
+            Tree.<K, V>build(keys, values, mid + 1, hi, blackHeight - 1),
+            BLACK);
+      }
+      else {
+        int a = lo + (n - 2) / 3;
+        int b = a + 1 + (hi - a - 2) / 2;
+        Tree<K, V> red = new Tree<K, V>((K) keys[a], (V) values[a],
+            Tree.<K, V>build(keys, values, lo, a, blackHeight - 1),
+            Tree.<K, V>build(keys, values, a + 1, b, blackHeight - 1),
+            RED);
+        return new Tree<K, V>((K) keys[b], (V) values[b],
+            red,
+            Tree.<K, V>build(keys, values, b + 1, hi, blackHeight - 1),
+            BLACK);
+      }
+    }
+
+    /** @return The greatest black height of a tree of the specified size. */
+    static int blackHeight(int size) {
+      return Integer.SIZE - 1 - Integer.numberOfLeadingZeros(size + 1);
+    }
+
+    /** @return The greatest size of a tree of the specified black height. */
+    static long capacity(int blackHeight) {
+      long capacity = 1;
+      for (int n = 0; n < blackHeight && capacity <= Integer.MAX_VALUE; n++) {
+        capacity *= 3;
+      }
+      return capacity - 1;
+    }
+
+    static <K extends Comparable<K>, V> Tree<K, V> min(Tree<K, V> t) {
+      while (t.left != null) {
+        t = t.left;
+      }
+      return t;
+    }
+
+    static <K extends Comparable<K>, V> Tree<K, V> blacken(Tree<K, V> t) {
+      if (t == null || t.color == BLACK) {
+        return t;
+      }
+      return t.withColor(BLACK);
+    }
+
+    static int size(Tree<?, ?> t) {
+      return t != null ? t.size : 0;
+    }
+
+    static int height(Tree<?, ?> t) {
+      return t != null ? Math.max(height(t.left), height(t.right)) + 1 : 0;
+    }
+
+    /** @return Black height of the tree or -1 if the tree is invalid. */
+    static int checkBlackHeight(Tree<?, ?> t) {
+      if (t == null) {
+        return 0;
+      }
+      if (isRed(t.right) || isRed(t) && isRed(t.left)) {
+        return -1;
+      }
+      int left = checkBlackHeight(t.left);
+      int right = checkBlackHeight(t.right);
+      if (left < 0 || left != right) {
+        return -1;
+      }
+      return t.color == RED ? left : left + 1;
+    }
+
+    static boolean isRed(Tree<?, ?> t) {
+      return t != null && t.color == RED;
+    }
+
+    /**
+     * Borrow a node from the right sibling or merge with it to make
+     * the left child or one of its children red.
+     */
+    Tree<K, V> moveRedLeft() {
+      Tree<K, V> t = flipColors();
+      if (isRed(t.right.left)) {
+        t = t.replaceRight(t.right.rotateRight()).rotateLeft().flipColors();
+      }
+      return t;
+    }
+
+    /**
+     * Borrow a node from the left sibling or merge with it to make
+     * the right child or one of its children red.
+     */
+    Tree<K, V> moveRedRight() {
+      Tree<K, V> t = flipColors();
+      if (isRed(t.left.left)) {
+        t = t.rotateRight().flipColors();
+      }
+      return t;
+    }
+
+    /** Restore the left-leaning invariants on the way up. */
+    Tree<K, V> fixUp() {
+      Tree<K, V> t = this;
       if (isRed(t.right) && !isRed(t.left)) {
         t = t.rotateLeft();
       }
       if (isRed(t.left) && isRed(t.left.left)) {
         t = t.rotateRight();
       }
+      if (isRed(t.left) && isRed(t.right)) {
+        t = t.flipColors();
+      }
       return t;
     }
 
-    static <K extends Comparable<K>, V> boolean isRed(Tree<K, V> t) {
-      return t != null && t.color == RED;
-    }
-
     Tree<K, V> rotateLeft() {
       Tree<K, V> tree = new Tree<K, V>(key, value, left, right.left, RED);
       return new Tree<K, V>(right.key, right.value, tree, right.right, color);
@@ -159,38 +622,20 @@ public final class RedBlackTreeMap<K extends Comparable<K>, V> implements Map<K,
       return null;
     }
 
-    @Override
-    public V get(K key) {
-      if (key == null) {
-        throw new NullPointerException();
-      }
-      return find(this, key);
-    }
-
-    @Override
-    public Map<K, V> put(K key, V value) {
-      if (key == null) {
-        throw new NullPointerException();
-      }
-      return insert(this, key, value);
-    }
-
-    @Override
-    public Map<K, V> remove(K key) {
-      if (key == null) {
-        throw new NullPointerException();
+    static <K extends Comparable<K>, V> boolean contains(Tree<K, V> tree, K key) {
+      while (tree != null) {
+        int i = key.compareTo(tree.key);
+        if (i < 0) {
+          tree = tree.left;
+        }
+        else if (i > 0) {
+          tree = tree.right;
+        }
+        else {
+          return true;
+        }
       }
-      throw new UnsupportedOperationException();
-    }
-
-    @Override
-    public Iterator<Entry<K, V>> iterator() {
-      return null;
-    }
-
-    @Override
-    public List<Entry<K, V>> list() {
-      return new ListImpl<K, V>(null, this).findLeaf();
+      return false;
     }
   }
 
@@ -256,4 +701,54 @@ public final class RedBlackTreeMap<K extends Comparable<K>, V> implements Map<K,
       return null;
     }
   }
+
+  private static final class It<K extends Comparable<K>, V>
+      implements Iterator<Entry<K, V>> {
+    /** The path from the root to the next node, left turns only. */
+    final Tree<K, V>[] stack;
+    final K from, to;
+    int top;
+
+    It(Tree<K, V> root, @Nullable K from, @Nullable K to) {
+      // The height of a left-leaning red-black tree
+      // with n nodes is at most 2 * log2(n + 1).
+      stack = new Tree[2 * (Integer.SIZE - Integer.numberOfLeadingZeros(root.size))];
+      this.from = from;
+      this.to = to;
+      pushLeft(root);
+    }
+
+    void pushLeft(Tree<K, V> tree) {
+      while (tree != null) {
+        if (from != null && tree.key.compareTo(from) < 0) {
+          tree = tree.right;
+        }
+        else {
+          stack[top++] = tree;
+          tree = tree.left;
+        }
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return top > 0 && (to == null || stack[top - 1].key.compareTo(to) < 0);
+    }
+
+    @Override
+    public Entry<K, V> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Tree<K, V> tree = stack[--top];
+      stack[top] = null;
+      pushLeft(tree.right);
+      return tree;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
 }
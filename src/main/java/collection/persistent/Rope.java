@@ -0,0 +1,238 @@
+package collection.persistent;
+
+import collection.persistent.fingertree.FingerTree;
+import collection.persistent.fingertree.Measured;
+import collection.persistent.fingertree.Monoid.IntegerSum;
+
+/**
+ * A persistent text buffer based on the finger tree of text chunks
+ * annotated with the chunk lengths.
+ * <p/>
+ * Text is stored in chunks of at most {@link #CHUNK_SIZE} characters.
+ * An edit rebuilds only the chunks at the edit position, merged with
+ * the inserted text, so every chunk keeps at least half of the maximal
+ * size, unless the whole text fits in a single chunk, and the number of
+ * chunks is proportional to the text length however many edits were
+ * made. Every chunk holds a string of its own, so a version of rope
+ * keeps only its own text reachable. Indexed access, insertion,
+ * deletion, substring and concatenation take logarithmic time.
+ * <p/>
+ * A rope is itself a {@link CharSequence}, the text is never
+ * flattened into a single string unless {@link #toString()} is called.
+ */
+public final class Rope implements CharSequence {
+  /** The maximal number of characters in a chunk. */
+  public static final int CHUNK_SIZE = 128;
+  private final FingerTree<IntegerSum, Chunk> tree;
+
+  /** Create new empty rope instance. */
+  public Rope() {
+    this(new FingerTree.Empty<IntegerSum, Chunk>(IntegerSum.UNIT));
+  }
+
+  /**
+   * Create new rope instance with the specified text.
+   *
+   * @param text Initial text.
+   */
+  public Rope(CharSequence text) {
+    this(append(new FingerTree.Empty<IntegerSum, Chunk>(IntegerSum.UNIT), text.toString()));
+  }
+
+  private Rope(FingerTree<IntegerSum, Chunk> tree) {
+    this.tree = tree;
+  }
+
+  @Override
+  public int length() {
+    return tree.measure().intValue();
+  }
+
+  @Override
+  public char charAt(int index) {
+    if (index < 0 || index >= length()) {
+      throw new IndexOutOfBoundsException();
+    }
+    FingerTree.Search<IntegerSum, Chunk> search = tree.search(greaterThan(index));
+    return search.elem().s.charAt(index - search.prefix().intValue());
+  }
+
+  /**
+   * @param that A rope to append.
+   * @return This text followed by that text.
+   */
+  public Rope concat(Rope that) {
+    FingerTree.View<IntegerSum, Chunk> l = tree.viewR();
+    FingerTree.View<IntegerSum, Chunk> r = that.tree.viewL();
+    if (l == null) {
+      return that;
+    }
+    if (r == null) {
+      return this;
+    }
+    if (l.elem().s.length() >= CHUNK_SIZE / 2 && r.elem().s.length() >= CHUNK_SIZE / 2) {
+      return new Rope(FingerTree.concat(tree, that.tree));
+    }
+    // One of the ropes is a single short chunk, merge it with its neighbour.
+    return new Rope(FingerTree.concat(append(l.tree(), l.elem().s + r.elem().s), r.tree()));
+  }
+
+  /**
+   * @param index The position to insert text at.
+   * @param text  Text to insert.
+   * @return Updated rope.
+   * @throws IndexOutOfBoundsException If index is out of range.
+   */
+  public Rope insert(int index, CharSequence text) {
+    if (index < 0 || index > length()) {
+      throw new IndexOutOfBoundsException();
+    }
+    if (text.length() == 0) {
+      return this;
+    }
+    return new Rope(replace(tree, index, index, text));
+  }
+
+  /**
+   * @param start The index of the first deleted character, inclusive.
+   * @param end   The index of the last deleted character, exclusive.
+   * @return Updated rope.
+   * @throws IndexOutOfBoundsException If range is out of bounds.
+   */
+  public Rope delete(int start, int end) {
+    checkRange(start, end);
+    if (start == end) {
+      return this;
+    }
+    return new Rope(replace(tree, start, end, ""));
+  }
+
+  /**
+   * @param start The index of the first character, inclusive.
+   * @param end   The index of the last character, exclusive.
+   * @return The text in the specified range.
+   * @throws IndexOutOfBoundsException If range is out of bounds.
+   */
+  public Rope substring(int start, int end) {
+    checkRange(start, end);
+    if (start == 0 && end == length()) {
+      return this;
+    }
+    return new Rope(replace(replace(tree, end, length(), ""), 0, start, ""));
+  }
+
+  @Override
+  public Rope subSequence(int start, int end) {
+    return substring(start, end);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder(length());
+    FingerTree.View<IntegerSum, Chunk> view = tree.viewL();
+    while (view != null) {
+      builder.append(view.elem().s);
+      view = view.tree().viewL();
+    }
+    return builder.toString();
+  }
+
+  /** @return The number of chunks. */
+  int chunks() {
+    int chunks = 0;
+    for (FingerTree.View<IntegerSum, Chunk> view = tree.viewL(); view != null; view = view.tree().viewL()) {
+      chunks++;
+    }
+    return chunks;
+  }
+
+  private void checkRange(int start, int end) {
+    if (start < 0 || start > end || end > length()) {
+      throw new IndexOutOfBoundsException();
+    }
+  }
+
+  /** Append text to the tree cut into chunks of about the same length. */
+  private static FingerTree<IntegerSum, Chunk> append(FingerTree<IntegerSum, Chunk> tree,
+                                                      String s) {
+    int count = (s.length() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    int offset = 0;
+    for (int n = 1; n <= count; n++) {
+      int end = (int) ((long) s.length() * n / count);
+      tree = tree.snoc(new Chunk(s.substring(offset, end)));
+      offset = end;
+    }
+    return tree;
+  }
+
+  /**
+   * Replace the range of text. The chunks cut by the range ends are
+   * rebuilt together with the new text, and with a neighbouring chunk
+   * if the result is too short for a chunk of its own.
+   */
+  private static FingerTree<IntegerSum, Chunk> replace(FingerTree<IntegerSum, Chunk> tree,
+                                                       int start, int end, CharSequence text) {
+    FingerTree.Split<IntegerSum, Chunk> before = tree.split(greaterThan(start));
+    FingerTree.Split<IntegerSum, Chunk> after = tree.split(atLeast(end));
+    FingerTree<IntegerSum, Chunk> left = before.left();
+    FingerTree<IntegerSum, Chunk> right = after.right();
+    StringBuilder window = new StringBuilder();
+    FingerTree.View<IntegerSum, Chunk> first = before.right().viewL();
+    if (first != null) {
+      window.append(first.elem().s, 0, start - left.measure().intValue());
+    }
+    window.append(text);
+    FingerTree.View<IntegerSum, Chunk> last = right.viewL();
+    if (last != null) {
+      String s = last.elem().s;
+      window.append(s, end - after.left().measure().intValue(), s.length());
+      right = last.tree();
+    }
+    if (window.length() < CHUNK_SIZE / 2) {
+      FingerTree.View<IntegerSum, Chunk> view = left.viewR();
+      if (view != null) {
+        window.insert(0, view.elem().s);
+        left = view.tree();
+      }
+      else if ((view = right.viewL()) != null) {
+        window.append(view.elem().s);
+        right = view.tree();
+      }
+    }
+    return FingerTree.concat(append(left, window.toString()), right);
+  }
+
+  private static FingerTree.Predicate<IntegerSum> greaterThan(final int index) {
+    return new FingerTree.Predicate<IntegerSum>() {
+      @Override
+      public boolean test(IntegerSum measure) {
+        return measure.intValue() > index;
+      }
+    };
+  }
+
+  private static FingerTree.Predicate<IntegerSum> atLeast(final int index) {
+    return new FingerTree.Predicate<IntegerSum>() {
+      @Override
+      public boolean test(IntegerSum measure) {
+        return measure.intValue() >= index;
+      }
+    };
+  }
+
+  /** A chunk of text. */
+  private static final class Chunk implements Measured<IntegerSum> {
+    final String s;
+    final IntegerSum m;
+
+    Chunk(String s) {
+      this.s = s;
+      m = IntegerSum.valueOf(s.length());
+    }
+
+    @Override
+    public IntegerSum measure() {
+      return m;
+    }
+  }
+}
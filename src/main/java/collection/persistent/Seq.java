@@ -1,5 +1,7 @@
 package collection.persistent;
 
+import java.util.Iterator;
+
 /**
  * A generic persistent list interface. Every mutation operation
  * creates new modified list instance, the previous version is left
@@ -7,7 +9,7 @@ package collection.persistent;
  *
  * @param <T> Element type.
  */
-public interface Seq<T> {
+public interface Seq<T> extends Iterable<T> {
   /**
    * Get the first element. The first element is the most
    * recently {@link #cons(Object) consed} one.
@@ -87,6 +89,48 @@ public interface Seq<T> {
 
   void accept(Visitor<T> visitor);
 
+  /**
+   * Please note that the returned iterator is not thread-safe
+   * therefore it should not be shared between threads, otherwise
+   * its behaviour is undefined.
+   *
+   * @return A thread-unsafe iterator over list elements
+   *         from index 0 to the last one.
+   */
+  @Override
+  Iterator<T> iterator();
+
+  /**
+   * @return A thread-unsafe iterator over list elements
+   *         from the last one to index 0.
+   */
+  Iterator<T> reverseIterator();
+
+  /**
+   * Fast single-threaded list builder, it collects elements
+   * in a mutable buffer and builds an immutable list at once.
+   *
+   * @param <T> Element type.
+   */
+  interface Builder<T> {
+    /**
+     * Add element to the end of the built list.
+     *
+     * @param v An element to add.
+     * @return This builder instance.
+     */
+    Builder<T> add(T v);
+
+    /**
+     * Build persistent list from the added elements, the first
+     * added element gets index 0.
+     *
+     * @return Persistent {@link Seq list} of the added elements.
+     * @throws IllegalStateException If a list was built before.
+     */
+    Seq<T> build();
+  }
+
   /**
    * A visitor to visit every list element once
    * in order of consing.
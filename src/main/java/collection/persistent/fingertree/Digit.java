@@ -22,6 +22,35 @@ abstract class Digit<M extends Monoid<M>, T extends Measured<M>>
 
   abstract void append(List<T> l);
 
+  /** @return The index after the appended elements. */
+  abstract int append(Measured<M>[] m, int index);
+
+  /** @return The number of elements. */
+  abstract int size();
+
+  /** @return The element at index. */
+  abstract T get(int index);
+
+  /**
+   * @param from The index of the first element, inclusive.
+   * @param to   The index of the last element, exclusive.
+   * @return A digit of the elements in range, or <code>null</code> if range is empty.
+   */
+  Digit<M, T> slice(int from, int to) {
+    switch (to - from) {
+      case 0:
+        return null;
+      case 1:
+        return new One<M, T>(get(from));
+      case 2:
+        return new Two<M, T>(get(from), get(from + 1));
+      case 3:
+        return new Three<M, T>(get(from), get(from + 1), get(from + 2));
+      default:
+        return this;
+    }
+  }
+
   static final class One<M extends Monoid<M>, T extends Measured<M>>
       extends Digit<M, T> {
     final T a;
@@ -37,6 +66,16 @@ abstract class Digit<M extends Monoid<M>, T extends Measured<M>>
       return m;
     }
 
+    @Override
+    int size() {
+      return 1;
+    }
+
+    @Override
+    T get(int index) {
+      return a;
+    }
+
     @Override
     FingerTree.Deep<M, T> consImpl(T v, FingerTree<M, Node<M, T>> m, Digit<M, T> r) {
       return new FingerTree.Deep<M, T>(new Two<M, T>(v, a), m, r);
@@ -81,6 +120,12 @@ abstract class Digit<M extends Monoid<M>, T extends Measured<M>>
     void append(List<T> l) {
       l.add(a);
     }
+
+    @Override
+    int append(Measured<M>[] m, int index) {
+      m[index++] = a;
+      return index;
+    }
   }
 
   static final class Two<M extends Monoid<M>, T extends Measured<M>>
@@ -101,6 +146,21 @@ abstract class Digit<M extends Monoid<M>, T extends Measured<M>>
       return m;
     }
 
+    @Override
+    int size() {
+      return 2;
+    }
+
+    @Override
+    T get(int index) {
+      switch (index) {
+        case 0:
+          return a;
+        default:
+          return b;
+      }
+    }
+
     @Override
     FingerTree.Deep<M, T> consImpl(T v, FingerTree<M, Node<M, T>> m, Digit<M, T> r) {
       return new FingerTree.Deep<M, T>(new Three<M, T>(v, a, b), m, r);
@@ -133,7 +193,7 @@ abstract class Digit<M extends Monoid<M>, T extends Measured<M>>
 
     @Override
     FingerTree<M, T> toTreeL() {
-      return new FingerTree.Single<M, T>(a).cons(b);
+      return new FingerTree.Single<M, T>(b).cons(a);
     }
 
     @Override
@@ -146,6 +206,13 @@ abstract class Digit<M extends Monoid<M>, T extends Measured<M>>
       l.add(a);
       l.add(b);
     }
+
+    @Override
+    int append(Measured<M>[] m, int index) {
+      m[index++] = a;
+      m[index++] = b;
+      return index;
+    }
   }
 
   static final class Three<M extends Monoid<M>, T extends Measured<M>>
@@ -169,6 +236,23 @@ abstract class Digit<M extends Monoid<M>, T extends Measured<M>>
       return m;
     }
 
+    @Override
+    int size() {
+      return 3;
+    }
+
+    @Override
+    T get(int index) {
+      switch (index) {
+        case 0:
+          return a;
+        case 1:
+          return b;
+        default:
+          return c;
+      }
+    }
+
     @Override
     FingerTree.Deep<M, T> consImpl(T v, FingerTree<M, Node<M, T>> m, Digit<M, T> r) {
       return new FingerTree.Deep<M, T>(new Four<M, T>(v, a, b, c), m, r);
@@ -201,7 +285,7 @@ abstract class Digit<M extends Monoid<M>, T extends Measured<M>>
 
     @Override
     FingerTree<M, T> toTreeL() {
-      return new FingerTree.Single<M, T>(a).cons(b).cons(c);
+      return new FingerTree.Single<M, T>(c).cons(b).cons(a);
     }
 
     @Override
@@ -215,6 +299,14 @@ abstract class Digit<M extends Monoid<M>, T extends Measured<M>>
       l.add(b);
       l.add(c);
     }
+
+    @Override
+    int append(Measured<M>[] m, int index) {
+      m[index++] = a;
+      m[index++] = b;
+      m[index++] = c;
+      return index;
+    }
   }
 
   static final class Four<M extends Monoid<M>, T extends Measured<M>>
@@ -241,6 +333,25 @@ abstract class Digit<M extends Monoid<M>, T extends Measured<M>>
       return m;
     }
 
+    @Override
+    int size() {
+      return 4;
+    }
+
+    @Override
+    T get(int index) {
+      switch (index) {
+        case 0:
+          return a;
+        case 1:
+          return b;
+        case 2:
+          return c;
+        default:
+          return d;
+      }
+    }
+
     @Override
     FingerTree.Deep<M, T> consImpl(T v, FingerTree<M, Node<M, T>> m, Digit<M, T> r) {
       return new FingerTree.Deep<M, T>(
@@ -275,7 +386,7 @@ abstract class Digit<M extends Monoid<M>, T extends Measured<M>>
 
     @Override
     FingerTree<M, T> toTreeL() {
-      return new FingerTree.Single<M, T>(a).cons(b).cons(c).cons(d);
+      return new FingerTree.Single<M, T>(d).cons(c).cons(b).cons(a);
     }
 
     @Override
@@ -290,5 +401,14 @@ abstract class Digit<M extends Monoid<M>, T extends Measured<M>>
       l.add(c);
       l.add(d);
     }
+
+    @Override
+    int append(Measured<M>[] m, int index) {
+      m[index++] = a;
+      m[index++] = b;
+      m[index++] = c;
+      m[index++] = d;
+      return index;
+    }
   }
 }
@@ -31,14 +31,31 @@ final class Elem<T> implements Measured<Elem.Size> {
   }
 
   static final class Size extends Number implements Monoid<Size>, Comparable<Size> {
-    static final Size ZERO = new Size(0);
-    static final Size ONE = new Size(1);
+    private static final Size[] CACHE = new Size[256];
+    static final Size ZERO;
+    static final Size ONE;
     final int size;
 
-    Size(int size) {
+    static {
+      for (int n = 0; n < CACHE.length; n++) {
+        CACHE[n] = new Size(n);
+      }
+      ZERO = CACHE[0];
+      ONE = CACHE[1];
+    }
+
+    private Size(int size) {
       this.size = size;
     }
 
+    /** @return Size instance, shared for small sizes. */
+    static Size of(int size) {
+      if (size >= 0 && size < CACHE.length) {
+        return CACHE[size];
+      }
+      return new Size(size);
+    }
+
     @Override
     public Size unit() {
       return ZERO;
@@ -46,7 +63,13 @@ final class Elem<T> implements Measured<Elem.Size> {
 
     @Override
     public Size combine(Size that) {
-      return new Size(size + that.size);
+      if (that.size == 0) {
+        return this;
+      }
+      if (size == 0) {
+        return that;
+      }
+      return of(size + that.size);
     }
 
     @Override
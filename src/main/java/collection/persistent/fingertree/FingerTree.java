@@ -1,105 +1,316 @@
 package collection.persistent.fingertree;
 
-import java.util.LinkedList;
-import java.util.List;
-
 public abstract class FingerTree<M extends Monoid<M>, T extends Measured<M>>
     implements Measured<M> {
   public static <M extends Monoid<M>, T extends Measured<M>>
   FingerTree<M, T> concat(FingerTree<M, T> x, FingerTree<M, T> y) {
-    return app3(x, new Seq<M, T>(), y);
+    return app3(x, null, 0, y);
   }
 
+  /**
+   * Concatenate two trees with at most four elements in between.
+   *
+   * @param a     The left tree.
+   * @param m     The elements between the trees.
+   * @param count Number of the elements.
+   * @param b     The right tree.
+   * @return The concatenated tree.
+   */
   static <M extends Monoid<M>, T extends Measured<M>>
-  FingerTree<M, T> app3(FingerTree<M, T> a, Seq<M, T> m, FingerTree<M, T> b) {
+  FingerTree<M, T> app3(FingerTree<M, T> a, Measured<M>[] m, int count, FingerTree<M, T> b) {
     if (a instanceof Deep<?, ?> && b instanceof Deep<?, ?>) {
-      return app3((Deep<M, T>) a, m, (Deep<M, T>) b);
+      return app3((Deep<M, T>) a, m, count, (Deep<M, T>) b);
     }
     else {
-      if (a == null || a instanceof Empty<?, ?>) {
-        return m.insR(b);
+      if (a instanceof Empty<?, ?>) {
+        return insL(m, count, b);
       }
-      if (b == null || b instanceof Empty<?, ?>) {
-        return m.insL(a);
+      if (b instanceof Empty<?, ?>) {
+        return insR(a, m, count);
       }
       if (a instanceof Single<?, ?>) {
-        return app3(((Single<M, T>) a), m, b);
+        return insL(m, count, b).cons(((Single<M, T>) a).v);
       }
       if (b instanceof Single<?, ?>) {
-        return app3(a, m, ((Single<M, T>) b));
+        return insR(a, m, count).snoc(((Single<M, T>) b).v);
       }
       throw new IllegalStateException();
     }
   }
 
   static <M extends Monoid<M>, T extends Measured<M>> Deep<M, T>
-  app3(Deep<M, T> a, Seq<M, T> m, Deep<M, T> b) {
-    return new Deep<M, T>(a.l, app3(a.d, nodes(a.r, m, b.l), b.d), b.r);
+  app3(Deep<M, T> a, Measured<M>[] m, int count, Deep<M, T> b) {
+    Measured<M>[] middle = new Measured[12];
+    int size = a.r.append(middle, 0);
+    for (int n = 0; n < count; n++) {
+      middle[size++] = m[n];
+    }
+    size = b.l.append(middle, size);
+    return new Deep<M, T>(a.l, app3(a.d, middle, FingerTree.<M, T>nodes(middle, size), b.d), b.r);
   }
 
-  static <M extends Monoid<M>, T extends Measured<M>> Deep<M, T>
-  app3(Single<M, T> a, Seq<M, T> m, FingerTree<M, T> b) {
-    throw new UnsupportedOperationException(); // TODO implement me
+  /**
+   * Group 2 to 12 elements into nodes of two and three elements
+   * in place, the array is reused to return the nodes.
+   *
+   * @return Number of the nodes.
+   */
+  static <M extends Monoid<M>, T extends Measured<M>> int nodes(Measured<M>[] m, int count) {
+    int index = 0;
+    int size = 0;
+    while (index < count) {
+      switch (count - index) {
+        case 2:
+        case 4:
+          m[size++] = new Node.Node2<M, T>((T) m[index], (T) m[index + 1]);
+          index += 2;
+          break;
+        default:
+          m[size++] = new Node.Node3<M, T>((T) m[index], (T) m[index + 1], (T) m[index + 2]);
+          index += 3;
+          break;
+      }
+    }
+    return size;
   }
 
-  static <M extends Monoid<M>, T extends Measured<M>> Deep<M, T>
-  app3(FingerTree<M, T> a, Seq<M, T> m, Single<M, T> b) {
-    throw new UnsupportedOperationException(); // TODO implement me
+  /** Prepend elements to the tree, keeping their order. */
+  static <M extends Monoid<M>, T extends Measured<M>>
+  FingerTree<M, T> insL(Measured<M>[] m, int count, FingerTree<M, T> t) {
+    for (int n = count - 1; n >= 0; n--) {
+      t = t.cons((T) m[n]);
+    }
+    return t;
   }
 
+  /** Append elements to the tree, keeping their order. */
   static <M extends Monoid<M>, T extends Measured<M>>
-  Seq<M, Node<M, T>> nodes(Digit<M, T> l, List<T> m, Digit<M, T> r) {
-    Seq<M, T> x = new Seq<M, T>();
-    l.append(x);
-    x.addAll(m);
-    r.append(x);
-    return x.nodes();
+  FingerTree<M, T> insR(FingerTree<M, T> t, Measured<M>[] m, int count) {
+    for (int n = 0; n < count; n++) {
+      t = t.snoc((T) m[n]);
+    }
+    return t;
   }
 
-  static class Seq<M extends Monoid<M>, T extends Measured<M>>
-      extends LinkedList<T> {
-    Seq<M, Node<M, T>> nodes() {
-      Seq<M, Node<M, T>> nodes = new Seq<M, Node<M, T>>();
-      while (size() > 0) {
-        switch (size()) {
-          case 2:
-            nodes.add(new Node.Node2<M, T>(remove(0), remove(0)));
-            break;
-          case 4:
-            nodes.add(new Node.Node2<M, T>(remove(0), remove(0)));
-            nodes.add(new Node.Node2<M, T>(remove(0), remove(0)));
-            break;
-          default:
-            nodes.add(new Node.Node3<M, T>(remove(0), remove(0), remove(0)));
-            break;
-        }
-      }
-      return nodes;
+  /**
+   * @param v An element to prepend.
+   * @return Updated tree.
+   */
+  public abstract FingerTree<M, T> cons(T v);
+
+  /**
+   * @param v An element to append.
+   * @return Updated tree.
+   */
+  public abstract FingerTree<M, T> snoc(T v);
+
+  /**
+   * Split tree at the first element for which the predicate becomes
+   * true on the measure of the elements up to and including it. The
+   * walk skips whole digits and subtrees using their cached measures.
+   *
+   * @param p A monotone predicate over measures.
+   * @return The left tree with the elements before that element,
+   *         and the right tree with the rest of elements. The right
+   *         tree is empty if the predicate is false on the whole tree.
+   */
+  public Split<M, T> split(Predicate<M> p) {
+    M unit = measure().unit();
+    if (this instanceof Empty<?, ?>) {
+      return new Split<M, T>(this, this);
     }
+    if (!p.test(measure())) {
+      return new Split<M, T>(this, new Empty<M, T>(unit));
+    }
+    Cut<FingerTree<M, T>, T> cut = cut(p, unit, this);
+    return new Split<M, T>(cut.l, cut.r.cons(cut.v));
+  }
 
-    FingerTree<M, T> insL(FingerTree<M, T> t) {
-      for (T v : this) {
-        t = t.cons(v);
-      }
-      return t;
+  /**
+   * Find the first element for which the predicate becomes true on
+   * the measure of the elements up to and including it. Unlike
+   * {@link #split(Predicate)} no trees are built.
+   *
+   * @param p A monotone predicate over measures.
+   * @return The element and the measure of the elements before it,
+   *         or <code>null</code> if the predicate is false on the whole tree.
+   */
+  public Search<M, T> search(Predicate<M> p) {
+    if (this instanceof Empty<?, ?> || !p.test(measure())) {
+      return null;
+    }
+    return search(p, measure().unit(), this);
+  }
+
+  /**
+   * @param p A monotone predicate over measures.
+   * @return The elements before the one on which the predicate becomes true.
+   */
+  public FingerTree<M, T> takeUntil(Predicate<M> p) {
+    return split(p).left();
+  }
+
+  /**
+   * @param p A monotone predicate over measures.
+   * @return The elements starting with the one on which the predicate becomes true.
+   */
+  public FingerTree<M, T> dropUntil(Predicate<M> p) {
+    return split(p).right();
+  }
+
+  static <M extends Monoid<M>, T extends Measured<M>>
+  Cut<FingerTree<M, T>, T> cut(Predicate<M> p, M i, FingerTree<M, T> t) {
+    if (t instanceof Single<?, ?>) {
+      M unit = i.unit();
+      return new Cut<FingerTree<M, T>, T>(
+          new Empty<M, T>(unit), ((Single<M, T>) t).v, new Empty<M, T>(unit));
+    }
+    Deep<M, T> deep = (Deep<M, T>) t;
+    M vl = i.combine(deep.l.measure());
+    if (p.test(vl)) {
+      Cut<Digit<M, T>, T> cut = cut(p, i, deep.l);
+      return new Cut<FingerTree<M, T>, T>(
+          toTree(i, cut.l), cut.v, deepL(cut.r, deep.d, deep.r));
     }
+    M vm = vl.combine(deep.d.measure());
+    if (p.test(vm)) {
+      Cut<FingerTree<M, Node<M, T>>, Node<M, T>> node = cut(p, vl, deep.d);
+      Cut<Digit<M, T>, T> cut = cut(p, vl.combine(node.l.measure()), node.v.toDigit());
+      return new Cut<FingerTree<M, T>, T>(
+          deepR(deep.l, node.l, cut.l), cut.v, deepL(cut.r, node.r, deep.r));
+    }
+    Cut<Digit<M, T>, T> cut = cut(p, vm, deep.r);
+    return new Cut<FingerTree<M, T>, T>(
+        deepR(deep.l, deep.d, cut.l), cut.v, toTree(i, cut.r));
+  }
 
-    FingerTree<M, T> insR(FingerTree<M, T> t) {
-      for (T v : this) {
-        t = t.snoc(v);
+  /** Split digit, the left and right parts are digits or <code>null</code>. */
+  static <M extends Monoid<M>, T extends Measured<M>>
+  Cut<Digit<M, T>, T> cut(Predicate<M> p, M i, Digit<M, T> digit) {
+    int size = digit.size();
+    int k = 0;
+    while (k < size - 1) {
+      i = i.combine(digit.get(k).measure());
+      if (p.test(i)) {
+        break;
       }
-      return t;
+      k++;
     }
+    return new Cut<Digit<M, T>, T>(digit.slice(0, k), digit.get(k), digit.slice(k + 1, size));
   }
 
-  abstract FingerTree<M, T> cons(T v);
+  static <M extends Monoid<M>, T extends Measured<M>>
+  Search<M, T> search(Predicate<M> p, M i, FingerTree<M, T> t) {
+    if (t instanceof Single<?, ?>) {
+      return new Search<M, T>(((Single<M, T>) t).v, i);
+    }
+    Deep<M, T> deep = (Deep<M, T>) t;
+    M vl = i.combine(deep.l.measure());
+    if (p.test(vl)) {
+      return search(p, i, deep.l);
+    }
+    M vm = vl.combine(deep.d.measure());
+    if (p.test(vm)) {
+      Search<M, Node<M, T>> node = search(p, vl, deep.d);
+      return search(p, node.prefix, node.v.toDigit());
+    }
+    return search(p, vm, deep.r);
+  }
 
-  abstract FingerTree<M, T> snoc(T v);
+  static <M extends Monoid<M>, T extends Measured<M>>
+  Search<M, T> search(Predicate<M> p, M i, Digit<M, T> digit) {
+    int size = digit.size();
+    int k = 0;
+    while (k < size - 1) {
+      M next = i.combine(digit.get(k).measure());
+      if (p.test(next)) {
+        break;
+      }
+      i = next;
+      k++;
+    }
+    return new Search<M, T>(digit.get(k), i);
+  }
+
+  static <M extends Monoid<M>, T extends Measured<M>>
+  FingerTree<M, T> toTree(M i, Digit<M, T> digit) {
+    if (digit == null) {
+      return new Empty<M, T>(i.unit());
+    }
+    return digit.toTreeR();
+  }
 
   public abstract View<M, T> viewL();
 
   public abstract View<M, T> viewR();
 
+  /**
+   * A monotone predicate over measures, that is once it is true on some
+   * measure it is also true on that measure combined with any other.
+   *
+   * @param <M> Measure type.
+   */
+  public interface Predicate<M> {
+    boolean test(M measure);
+  }
+
+  /** Two parts of a split tree. */
+  public static final class Split<M extends Monoid<M>, T extends Measured<M>> {
+    final FingerTree<M, T> l;
+    final FingerTree<M, T> r;
+
+    Split(FingerTree<M, T> l, FingerTree<M, T> r) {
+      this.l = l;
+      this.r = r;
+    }
+
+    public FingerTree<M, T> left() {
+      return l;
+    }
+
+    public FingerTree<M, T> right() {
+      return r;
+    }
+  }
+
+  /** An element found by a predicate. */
+  public static final class Search<M extends Monoid<M>, T extends Measured<M>> {
+    final T v;
+    final M prefix;
+
+    Search(T v, M prefix) {
+      this.v = v;
+      this.prefix = prefix;
+    }
+
+    public T elem() {
+      return v;
+    }
+
+    /** @return The measure of the elements before the found one. */
+    public M prefix() {
+      return prefix;
+    }
+  }
+
+  /**
+   * A tree or a digit split around an element.
+   *
+   * @param <P> Type of the parts, a tree or a digit.
+   * @param <T> Element type.
+   */
+  static final class Cut<P, T> {
+    final P l;
+    final T v;
+    final P r;
+
+    Cut(P l, T v, P r) {
+      this.l = l;
+      this.v = v;
+      this.r = r;
+    }
+  }
+
   public static final class View<M extends Monoid<M>, T extends Measured<M>> {
     final T v;
     final FingerTree<M, T> t;
@@ -118,6 +329,7 @@ public abstract class FingerTree<M extends Monoid<M>, T extends Measured<M>>
     }
   }
 
+  static <M extends Monoid<M>, T extends Measured<M>>
   FingerTree<M, T> deepL(Digit<M, T> tail, FingerTree<M, Node<M, T>> d, Digit<M, T> r) {
     if (tail != null) {
       return new Deep<M, T>(tail, d, r);
@@ -129,6 +341,7 @@ public abstract class FingerTree<M extends Monoid<M>, T extends Measured<M>>
     return r.toTreeL();
   }
 
+  static <M extends Monoid<M>, T extends Measured<M>>
   FingerTree<M, T> deepR(Digit<M, T> l, FingerTree<M, Node<M, T>> d, Digit<M, T> tail) {
     if (tail != null) {
       return new Deep<M, T>(l, d, tail);
@@ -149,12 +362,12 @@ public abstract class FingerTree<M extends Monoid<M>, T extends Measured<M>>
     }
 
     @Override
-    FingerTree<M, T> cons(T v) {
+    public FingerTree<M, T> cons(T v) {
       return new Single<M, T>(v);
     }
 
     @Override
-    FingerTree<M, T> snoc(T v) {
+    public FingerTree<M, T> snoc(T v) {
       return new Single<M, T>(v);
     }
 
@@ -190,7 +403,7 @@ public abstract class FingerTree<M extends Monoid<M>, T extends Measured<M>>
     }
 
     @Override
-    FingerTree<M, T> cons(T v) {
+    public FingerTree<M, T> cons(T v) {
       return new Deep<M, T>(
           new Digit.One<M, T>(v),
           new Empty<M, Node<M, T>>(m.unit()),
@@ -198,7 +411,7 @@ public abstract class FingerTree<M extends Monoid<M>, T extends Measured<M>>
     }
 
     @Override
-    FingerTree<M, T> snoc(T v) {
+    public FingerTree<M, T> snoc(T v) {
       return new Deep<M, T>(
           new Digit.One<M, T>(this.v),
           new Empty<M, Node<M, T>>(m.unit()),
@@ -238,12 +451,12 @@ public abstract class FingerTree<M extends Monoid<M>, T extends Measured<M>>
     }
 
     @Override
-    FingerTree<M, T> cons(T v) {
+    public FingerTree<M, T> cons(T v) {
       return l.consImpl(v, d, r);
     }
 
     @Override
-    FingerTree<M, T> snoc(T v) {
+    public FingerTree<M, T> snoc(T v) {
       return r.snocImpl(l, d, v);
     }
 
@@ -0,0 +1,210 @@
+package collection.persistent.fingertree;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A persistent set of closed integer intervals with overlap queries,
+ * based on the finger tree ordered by the interval low endpoints and
+ * annotated with the maximal low and the maximal high endpoints,
+ * as described in the publication
+ * <a href="http://www.soi.city.ac.uk/~ross/papers/FingerTree.html">Finger
+ * Trees: A Simple General-purpose Data Structure</a> by Ralf Hinze and
+ * Ross Paterson.
+ * <p/>
+ * A query first cuts off the intervals which start after the query
+ * range, then repeatedly drops the intervals before the next one whose
+ * high endpoint reaches the query range, skipping whole subtrees by
+ * their cached measures, so every matching interval takes logarithmic
+ * time to find.
+ *
+ * @param <T> Value type.
+ */
+public final class IntervalTree<T> {
+  private final FingerTree<Bounds, Interval<T>> tree;
+  private final int size;
+
+  /** Create new empty interval tree instance. */
+  public IntervalTree() {
+    this(new FingerTree.Empty<Bounds, Interval<T>>(Bounds.UNIT), 0);
+  }
+
+  private IntervalTree(FingerTree<Bounds, Interval<T>> tree, int size) {
+    this.tree = tree;
+    this.size = size;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @param low   The low endpoint, inclusive.
+   * @param high  The high endpoint, inclusive.
+   * @param value A value to associate with the interval.
+   * @return Updated interval tree.
+   * @throws IllegalArgumentException If low endpoint is greater than high endpoint.
+   */
+  public IntervalTree<T> insert(int low, int high, T value) {
+    if (low > high) {
+      throw new IllegalArgumentException();
+    }
+    final Interval<T> interval = new Interval<T>(low, high, value);
+    FingerTree.Split<Bounds, Interval<T>> split = tree.split(new FingerTree.Predicate<Bounds>() {
+      @Override
+      public boolean test(Bounds measure) {
+        return measure.low > interval.low;
+      }
+    });
+    return new IntervalTree<T>(
+        FingerTree.concat(split.left(), split.right().cons(interval)), size + 1);
+  }
+
+  /**
+   * @param low  The low endpoint of the query range, inclusive.
+   * @param high The high endpoint of the query range, inclusive.
+   * @return Whether any interval overlaps with the query range.
+   */
+  public boolean overlaps(int low, int high) {
+    FingerTree.Search<Bounds, Interval<T>> search = tree.search(atLeast(low));
+    return search != null && search.elem().low <= high;
+  }
+
+  /**
+   * @param low  The low endpoint of the query range, inclusive.
+   * @param high The high endpoint of the query range, inclusive.
+   * @return The intervals which overlap with the query range,
+   *         in the order of their low endpoints.
+   */
+  public List<Interval<T>> intersections(int low, final int high) {
+    List<Interval<T>> result = new ArrayList<Interval<T>>();
+    if (low > high) {
+      return result;
+    }
+    FingerTree<Bounds, Interval<T>> candidates = tree.takeUntil(new FingerTree.Predicate<Bounds>() {
+      @Override
+      public boolean test(Bounds measure) {
+        return measure.low > high;
+      }
+    });
+    FingerTree.View<Bounds, Interval<T>> view = candidates.dropUntil(atLeast(low)).viewL();
+    while (view != null) {
+      result.add(view.elem());
+      view = view.tree().dropUntil(atLeast(low)).viewL();
+    }
+    return result;
+  }
+
+  /**
+   * @param point A point to query.
+   * @return The intervals which contain the point,
+   *         in the order of their low endpoints.
+   */
+  public List<Interval<T>> stabbing(int point) {
+    return intersections(point, point);
+  }
+
+  private static FingerTree.Predicate<Bounds> atLeast(final int low) {
+    return new FingerTree.Predicate<Bounds>() {
+      @Override
+      public boolean test(Bounds measure) {
+        return measure.high >= low;
+      }
+    };
+  }
+
+  /**
+   * A closed interval with associated value.
+   *
+   * @param <T> Value type.
+   */
+  public static final class Interval<T> implements Measured<Bounds> {
+    final int low;
+    final int high;
+    final T value;
+    final Bounds m;
+
+    Interval(int low, int high, T value) {
+      this.low = low;
+      this.high = high;
+      this.value = value;
+      m = new Bounds(low, high);
+    }
+
+    public int low() {
+      return low;
+    }
+
+    public int high() {
+      return high;
+    }
+
+    public T value() {
+      return value;
+    }
+
+    @Override
+    public Bounds measure() {
+      return m;
+    }
+
+    @Override
+    public String toString() {
+      return "[" + low + ", " + high + "]=" + value;
+    }
+  }
+
+  /**
+   * A pair monoid with the maximal low endpoint and the maximal high
+   * endpoint of intervals, with minimal integers as the unit.
+   */
+  public static final class Bounds implements Monoid<Bounds> {
+    static final Bounds UNIT = new Bounds(Integer.MIN_VALUE, Integer.MIN_VALUE);
+    final int low;
+    final int high;
+
+    Bounds(int low, int high) {
+      this.low = low;
+      this.high = high;
+    }
+
+    /** @return The maximal low endpoint. */
+    public int low() {
+      return low;
+    }
+
+    /** @return The maximal high endpoint. */
+    public int high() {
+      return high;
+    }
+
+    @Override
+    public Bounds unit() {
+      return UNIT;
+    }
+
+    @Override
+    public Bounds combine(Bounds that) {
+      if (this == UNIT) {
+        return that;
+      }
+      if (that == UNIT) {
+        return this;
+      }
+      return new Bounds(Math.max(low, that.low), Math.max(high, that.high));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) { return true; }
+      if (!(o instanceof Bounds)) { return false; }
+      Bounds that = (Bounds) o;
+      return low == that.low && high == that.high;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * low + high;
+    }
+  }
+}
@@ -88,8 +88,16 @@ public interface Monoid<T extends Monoid<T>> {
    */
   final class IntegerSum extends Number implements Monoid<IntegerSum> {
     public static final IntegerSum UNIT = new IntegerSum();
+    private static final IntegerSum[] CACHE = new IntegerSum[256];
     private final int v;
 
+    static {
+      CACHE[0] = UNIT;
+      for (int n = 1; n < CACHE.length; n++) {
+        CACHE[n] = new IntegerSum(n);
+      }
+    }
+
     private IntegerSum() {
       v = 0;
     }
@@ -98,6 +106,21 @@ public interface Monoid<T extends Monoid<T>> {
       this.v = v;
     }
 
+    /**
+     * Return an instance with the specified value, shared for small values
+     * so that the sizes of the small nodes near the leaves of a finger tree
+     * are not allocated on every combine.
+     *
+     * @param v Integer value.
+     * @return Monoid value.
+     */
+    public static IntegerSum valueOf(int v) {
+      if (v >= 0 && v < CACHE.length) {
+        return CACHE[v];
+      }
+      return new IntegerSum(v);
+    }
+
     @Override
     public IntegerSum unit() {
       return UNIT;
@@ -111,7 +134,7 @@ public interface Monoid<T extends Monoid<T>> {
       if (that == UNIT) {
         return this;
       }
-      return new IntegerSum(v + that.v);
+      return valueOf(v + that.v);
     }
 
     @Override
@@ -1,15 +1,43 @@
 package collection.persistent.lazy;
 
-/** Lazy stream of values. */
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Lazy stream of values.
+ * <p/>
+ * Cells are safe to share between threads without locking. A forced tail
+ * is published with compare-and-set, so the same suspended tail may be
+ * evaluated by more than one thread at once, but every thread sees the
+ * value published first.
+ * <p/>
+ * Concatenated streams are forced without recursion, however deeply
+ * the concatenations are nested.
+ */
 public final class Cell<T> implements Tail<T> {
+  private static final AtomicReferenceFieldUpdater<Cell, Tail> TAIL =
+      AtomicReferenceFieldUpdater.newUpdater(Cell.class, Tail.class, "tail");
   private final T value;
-  private Tail<T> tail;
+  private volatile Tail<T> tail;
+  /**
+   * The left stream of a concatenated cell which is not forced yet,
+   * the tail is then the right stream, which is never a cell. Cleared
+   * once the tail is forced.
+   */
+  private volatile Cell<T> left;
 
   public Cell(T value, Tail<T> tail) {
     this.value = value;
     this.tail = tail;
   }
 
+  /** Create a concatenated cell. */
+  private Cell(Cell<T> left, Tail<T> right) {
+    value = left.value;
+    tail = right;
+    this.left = left;
+  }
+
   @Override
   public Cell<T> eval() {
     return this;
@@ -19,29 +47,89 @@ public final class Cell<T> implements Tail<T> {
     return value;
   }
 
-  public synchronized boolean isSuspended() {
+  public boolean isSuspended() {
+    Tail<T> tail = this.tail;
     return !(tail == null || tail instanceof Cell<?>);
   }
 
-  public synchronized Cell<T> tail() {
-    if (isSuspended()) {
-      tail = tail.eval(); // Evaluate and memoize tail.
+  public Cell<T> tail() {
+    Tail<T> tail = this.tail;
+    if (tail == null || tail instanceof Cell<?>) {
+      return (Cell<T>) tail;
+    }
+    if (left != null) {
+      return force(this);
+    }
+    // The tail of a concatenated cell is published before its left stream
+    // is cleared, so read it again in case it was just forced.
+    tail = this.tail;
+    if (tail == null || tail instanceof Cell<?>) {
+      return (Cell<T>) tail;
     }
-    return (Cell<T>) tail;
+    // Evaluate and memoize tail, unless another thread did it first.
+    TAIL.compareAndSet(this, tail, tail.eval());
+    return (Cell<T>) this.tail;
   }
 
-  public static <T> Cell<T> concat(final Cell<T> a, final Tail<T> b) {
+  public static <T> Cell<T> concat(Cell<T> a, Tail<T> b) {
     if (a == null) {
       return b.eval();
     }
-    else {
-      return new Cell<T>(a.value(), new Tail<T>() {
+    if (b instanceof Cell<?>) {
+      // A forced tail is a cell, so keep the right stream behind a suspension.
+      final Cell<T> c = (Cell<T>) b;
+      b = new Tail<T>() {
         @Override
         public Cell<T> eval() {
-          return concat(a.tail(), b);
+          return c;
         }
-      });
+      };
+    }
+    return new Cell<T>(a, b);
+  }
+
+  /**
+   * Force the tail of a concatenated cell, which is the tail of its left
+   * cell concatenated with its right stream. The left cell may itself be
+   * a suspended concatenated cell, so walk down to the first one which is
+   * not, force it, and then force the cells on the way back up.
+   */
+  private static <T> Cell<T> force(Cell<T> cell) {
+    Cell<T> a = cell.left;
+    if (a == null) {
+      return cell.tail(); // Forced by another thread.
+    }
+    if (a.left == null) {
+      return force(cell, a.tail());
+    }
+    ArrayList<Cell<T>> stack = new ArrayList<Cell<T>>();
+    Cell<T> next = cell;
+    while ((a = next.left) != null) {
+      stack.add(next);
+      next = a;
+    }
+    Cell<T> r = next.tail();
+    for (int n = stack.size() - 1; n >= 0; n--) {
+      r = force(stack.get(n), r);
+    }
+    return r;
+  }
+
+  /**
+   * Publish the tail of a concatenated cell.
+   *
+   * @param cell A concatenated cell.
+   * @param r    The forced tail of its left cell.
+   * @return The forced tail of the concatenated cell.
+   */
+  private static <T> Cell<T> force(Cell<T> cell, Cell<T> r) {
+    Tail<T> b = cell.tail;
+    if (!(b == null || b instanceof Cell<?>)
+        && TAIL.compareAndSet(cell, b, r == null ? b.eval() : new Cell<T>(r, b))) {
+      // Let the forced left stream go.
+      cell.left = null;
     }
+    return (Cell<T>) cell.tail;
   }
 
   public static <T> Tail<T> reverse(final Cell<T> head) {
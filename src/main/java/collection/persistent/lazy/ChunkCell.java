@@ -0,0 +1,107 @@
+package collection.persistent.lazy;
+
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Lazy stream of chunks of values, a variant of {@link Cell} which
+ * suspends a block of values at a time rather than every single value,
+ * so a stream of <code>n</code> values costs <code>n / chunk size</code>
+ * cells and suspensions.
+ * <p/>
+ * A cell is a view of the first values of an array. The array must not
+ * be changed in that range afterwards, but the slots past the range may
+ * still be filled in, which lets a new cell share the array of the old
+ * one. Cells are safe to share between threads without locking, just
+ * like the single value cells.
+ */
+public final class ChunkCell<T> implements ChunkTail<T> {
+  private static final AtomicReferenceFieldUpdater<ChunkCell, ChunkTail> TAIL =
+      AtomicReferenceFieldUpdater.newUpdater(ChunkCell.class, ChunkTail.class, "tail");
+  private final Object[] values;
+  private final int size;
+  private volatile ChunkTail<T> tail;
+
+  /**
+   * @param values The array of values.
+   * @param size   The number of values of this chunk, from the start of the array.
+   * @param tail   The rest of the stream.
+   */
+  public ChunkCell(Object[] values, int size, ChunkTail<T> tail) {
+    this.values = values;
+    this.size = size;
+    this.tail = tail;
+  }
+
+  @Override
+  public ChunkCell<T> eval() {
+    return this;
+  }
+
+  /** @return The number of values in this chunk. */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @param index The index of a value in this chunk.
+   * @return The value at index.
+   * @throws IndexOutOfBoundsException If index is out of range.
+   */
+  public T get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException();
+    }
+    return (T) values[index];
+  }
+
+  public boolean isSuspended() {
+    ChunkTail<T> tail = this.tail;
+    return !(tail == null || tail instanceof ChunkCell<?>);
+  }
+
+  public ChunkCell<T> tail() {
+    ChunkTail<T> tail = this.tail;
+    if (tail == null || tail instanceof ChunkCell<?>) {
+      return (ChunkCell<T>) tail;
+    }
+    // Evaluate and memoize tail, unless another thread did it first.
+    TAIL.compareAndSet(this, tail, tail.eval());
+    return (ChunkCell<T>) this.tail;
+  }
+
+  /**
+   * @param tail The rest of the stream.
+   * @return The same chunk of values followed by the specified stream.
+   */
+  public ChunkCell<T> with(ChunkTail<T> tail) {
+    return new ChunkCell<T>(values, size, tail);
+  }
+
+  public static <T> ChunkCell<T> concat(final ChunkCell<T> a, final ChunkTail<T> b) {
+    if (a == null) {
+      return b.eval();
+    }
+    else {
+      return a.with(new ChunkTail<T>() {
+        @Override
+        public ChunkCell<T> eval() {
+          return concat(a.tail(), b);
+        }
+      });
+    }
+  }
+
+  /** @return The stream of the same chunks in the reverse order, the values of chunks keep their order. */
+  public static <T> ChunkTail<T> reverse(final ChunkCell<T> head) {
+    return new ChunkTail.Memoized<T>() {
+      @Override
+      protected ChunkCell<T> doEval() {
+        ChunkCell<T> r = null;
+        for (ChunkCell<T> c = head; c != null; c = c.tail()) {
+          r = c.with(r);
+        }
+        return r;
+      }
+    };
+  }
+}
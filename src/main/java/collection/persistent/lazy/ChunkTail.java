@@ -0,0 +1,31 @@
+package collection.persistent.lazy;
+
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/** Suspended evaluation of chunked lazy stream tail. */
+public interface ChunkTail<T> {
+  ChunkCell<T> eval();
+
+  /**
+   * Tail which evaluates once and remembers the result,
+   * see {@link Tail.Memoized}.
+   */
+  abstract class Memoized<T> implements ChunkTail<T> {
+    private static final ChunkCell NULL = new ChunkCell(new Object[0], 0, null);
+    private static final AtomicReferenceFieldUpdater<Memoized, ChunkCell> R =
+        AtomicReferenceFieldUpdater.newUpdater(Memoized.class, ChunkCell.class, "r");
+    private volatile ChunkCell<T> r = NULL;
+
+    @Override
+    public final ChunkCell<T> eval() {
+      ChunkCell<T> r = this.r;
+      if (r == NULL) {
+        R.compareAndSet(this, NULL, doEval());
+        r = this.r;
+      }
+      return r;
+    }
+
+    protected abstract ChunkCell<T> doEval();
+  }
+}
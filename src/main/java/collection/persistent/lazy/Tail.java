@@ -1,17 +1,29 @@
 package collection.persistent.lazy;
 
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
 /** Suspended evaluation of lazy stream tail. */
 public interface Tail<T> {
   Cell<T> eval();
 
+  /**
+   * Tail which evaluates once and remembers the result. Concurrent
+   * callers may evaluate it more than once, so the evaluation must
+   * have no side effects, but all of them return the result which
+   * was published first.
+   */
   abstract class Memoized<T> implements Tail<T> {
     private static final Cell NULL = new Cell(null, null);
-    private Cell<T> r = NULL;
+    private static final AtomicReferenceFieldUpdater<Memoized, Cell> R =
+        AtomicReferenceFieldUpdater.newUpdater(Memoized.class, Cell.class, "r");
+    private volatile Cell<T> r = NULL;
 
     @Override
-    public final synchronized Cell<T> eval() {
+    public final Cell<T> eval() {
+      Cell<T> r = this.r;
       if (r == NULL) {
-        r = doEval();
+        R.compareAndSet(this, NULL, doEval());
+        r = this.r;
       }
       return r;
     }
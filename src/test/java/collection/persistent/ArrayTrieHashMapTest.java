@@ -1,8 +1,128 @@
 package collection.persistent;
 
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
 public class ArrayTrieHashMapTest extends HashMapTest {
   @Override
   <K, V> Map<K, V> create() {
     return new ArrayTrieHashMap<K, V>();
   }
+
+  @Test
+  public void builder() {
+    ArrayTrieHashMap.Builder<String, String> builder =
+        new ArrayTrieHashMap.Builder<String, String>();
+    for (int n = 0; n < 100000; n++) {
+      builder.put(Integer.toString(n, 8), Integer.toString(n));
+    }
+    for (int n = 0; n < 100000; n += 2) {
+      builder.put(Integer.toString(n, 8), Integer.toString(n, 16));
+    }
+    ArrayTrieHashMap<String, String> map = builder.build();
+    assertEquals(100000, map.size());
+
+    for (int n = 0; n < 100000; n++) {
+      String expected = n % 2 == 0 ? Integer.toString(n, 16) : Integer.toString(n);
+      assertEquals(expected, map.get(Integer.toString(n, 8)));
+    }
+
+    int count = 0;
+    for (Map.Entry<String, String> entry : map) {
+      count++;
+    }
+    assertEquals(100000, count);
+
+    // The built map must not be affected by updates of its successors.
+    Map<String, String> updated = map;
+    for (int n = 0; n < 100000; n++) {
+      updated = updated.put(Integer.toString(n, 8), "x");
+    }
+    for (int n = 0; n < 100000; n++) {
+      assertEquals("x", updated.get(Integer.toString(n, 8)));
+      String expected = n % 2 == 0 ? Integer.toString(n, 16) : Integer.toString(n);
+      assertEquals(expected, map.get(Integer.toString(n, 8)));
+    }
+  }
+
+  @Test
+  public void contraction() {
+    ArrayTrieHashMap<Integer, String> map = new ArrayTrieHashMap<Integer, String>();
+    // Both keys share the lowest 15 bits of hash code.
+    map = map.put(0, "a").put(1 << 15, "b");
+    assertEquals(4, map.depth());
+    map = map.remove(1 << 15);
+    assertEquals(1, map.depth());
+    assertEquals(1, map.tables());
+    assertEquals("a", map.get(0));
+    assertNull(map.get(1 << 15));
+  }
+
+  @Test
+  public void churn() {
+    Random random = new Random(1);
+    ArrayList<Integer> keys = new ArrayList<Integer>();
+    ArrayTrieHashMap<Integer, Integer> map = new ArrayTrieHashMap<Integer, Integer>();
+    for (int n = 0; n < 10000; n++) {
+      int key = random.nextInt();
+      keys.add(key);
+      map = map.put(key, key);
+    }
+    int depth = map.depth();
+    int tables = map.tables();
+
+    for (int round = 0; round < 20; round++) {
+      for (int n = 0; n < 10000; n++) {
+        int index = random.nextInt(keys.size());
+        int key = random.nextInt();
+        map = map.remove(keys.get(index)).put(key, key);
+        keys.set(index, key);
+      }
+
+      // The shape of a trie depends only on its keys, so after
+      // any number of updates it must be the same as the shape
+      // of a trie freshly built from the same keys.
+      ArrayTrieHashMap<Integer, Integer> fresh = new ArrayTrieHashMap<Integer, Integer>();
+      for (Integer key : keys) {
+        fresh = fresh.put(key, key);
+      }
+      assertEquals(fresh.depth(), map.depth());
+      assertEquals(fresh.tables(), map.tables());
+      assertEquals(fresh.size(), map.size());
+      assertTrue(map.depth() <= depth + 1);
+      assertTrue(map.tables() <= tables * 11 / 10);
+      for (Integer key : keys) {
+        assertEquals(key, map.get(key));
+      }
+    }
+  }
+
+  @Test
+  public void emptyBuilder() {
+    ArrayTrieHashMap<String, String> map = new ArrayTrieHashMap.Builder<String, String>().build();
+    assertNull(map.get("a"));
+    assertEquals(0, map.size());
+    assertFalse(map.iterator().hasNext());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void builderBuiltTwice() {
+    ArrayTrieHashMap.Builder<String, String> builder =
+        new ArrayTrieHashMap.Builder<String, String>();
+    builder.put("a", "a");
+    builder.build();
+    builder.build();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void builderPutAfterBuild() {
+    ArrayTrieHashMap.Builder<String, String> builder =
+        new ArrayTrieHashMap.Builder<String, String>();
+    builder.build();
+    builder.put("a", "a");
+  }
 }
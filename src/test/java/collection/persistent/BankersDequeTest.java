@@ -0,0 +1,8 @@
+package collection.persistent;
+
+public class BankersDequeTest extends DequeTest {
+  @Override
+  <T> Deque<T> create() {
+    return new BankersDeque<T>();
+  }
+}
@@ -0,0 +1,8 @@
+package collection.persistent;
+
+public class ChunkedBankersQueueTest extends QueueTest {
+  @Override
+  <T> Queue<T> create() {
+    return new ChunkedBankersQueue<T>();
+  }
+}
@@ -0,0 +1,8 @@
+package collection.persistent;
+
+public class ChunkedRealTimeQueueTest extends QueueTest {
+  @Override
+  <T> Queue<T> create() {
+    return new ChunkedRealTimeQueue<T>();
+  }
+}
@@ -0,0 +1,131 @@
+package collection.persistent;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public abstract class DequeTest {
+  abstract <T> Deque<T> create();
+
+  @Test
+  public void deque() {
+    Deque<Integer> d = create();
+    assertEquals(0, d.size());
+    assertTrue(d.isEmpty());
+    d = d.cons(2).cons(1).snoc(3).snoc(4);
+    assertEquals(4, d.size());
+    assertFalse(d.isEmpty());
+    assertEquals(1, (int) d.head());
+    assertEquals(4, (int) d.last());
+    d = d.tail();
+    assertEquals(2, (int) d.head());
+    d = d.init();
+    assertEquals(3, (int) d.last());
+    d = d.init();
+    assertEquals(2, (int) d.head());
+    assertEquals(2, (int) d.last());
+    d = d.tail();
+    assertEquals(0, d.size());
+    assertTrue(d.isEmpty());
+  }
+
+  @Test
+  public void queue() {
+    // Elements pushed at one end come out at the other end in order.
+    Deque<Integer> d = create();
+    for (int n = 0; n < 1000; n++) {
+      d = d.snoc(n);
+    }
+    for (int n = 0; n < 1000; n++) {
+      assertEquals(n, (int) d.head());
+      d = d.tail();
+    }
+    assertTrue(d.isEmpty());
+    for (int n = 0; n < 1000; n++) {
+      d = d.cons(n);
+    }
+    for (int n = 0; n < 1000; n++) {
+      assertEquals(n, (int) d.last());
+      d = d.init();
+    }
+    assertTrue(d.isEmpty());
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void headEmpty() {
+    create().head();
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void tailEmpty() {
+    create().tail();
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void lastEmpty() {
+    create().last();
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void initEmpty() {
+    create().init();
+  }
+
+  @Test
+  public void versions() {
+    // Update random old versions of deque at both ends and
+    // check every version against the copy of its elements.
+    Random random = new Random(1);
+    ArrayList<Deque<Integer>> deques = new ArrayList<Deque<Integer>>();
+    ArrayList<ArrayDeque<Integer>> expected = new ArrayList<ArrayDeque<Integer>>();
+    deques.add(this.<Integer>create());
+    expected.add(new ArrayDeque<Integer>());
+    for (int n = 0; n < 10000; n++) {
+      int index = deques.size() - 1 - random.nextInt(Math.min(deques.size(), 5));
+      Deque<Integer> d = deques.get(index);
+      ArrayDeque<Integer> e = new ArrayDeque<Integer>(expected.get(index));
+      int op = e.isEmpty() ? random.nextInt(2) : random.nextInt(6);
+      switch (op) {
+        case 0:
+        case 2:
+          d = d.cons(n);
+          e.addFirst(n);
+          break;
+        case 1:
+        case 3:
+          d = d.snoc(n);
+          e.addLast(n);
+          break;
+        case 4:
+          assertEquals(e.removeFirst(), d.head());
+          d = d.tail();
+          break;
+        default:
+          assertEquals(e.removeLast(), d.last());
+          d = d.init();
+          break;
+      }
+      assertEquals(e.size(), d.size());
+      assertEquals(e.isEmpty(), d.isEmpty());
+      if (!e.isEmpty()) {
+        assertEquals(e.peekFirst(), d.head());
+        assertEquals(e.peekLast(), d.last());
+      }
+      deques.add(d);
+      expected.add(e);
+    }
+    for (int n = 0; n < deques.size(); n += 100) {
+      Deque<Integer> d = deques.get(n);
+      for (Integer v : expected.get(n)) {
+        assertEquals(v, d.head());
+        d = d.tail();
+      }
+      assertTrue(d.isEmpty());
+    }
+  }
+}
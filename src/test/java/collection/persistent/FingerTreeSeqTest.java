@@ -2,6 +2,12 @@ package collection.persistent;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
 import static org.junit.Assert.*;
 
 public class FingerTreeSeqTest {
@@ -125,6 +131,194 @@ public class FingerTreeSeqTest {
     assertEquals(1000, sum.sum);
   }
 
+  @Test
+  public void concat() {
+    for (int a = 0; a < 100; a++) {
+      for (int b = 0; b < 100; b++) {
+        FingerTreeSeq<Integer> t = build(0, a).concat(build(a, a + b));
+        assertEquals(a + b, t.size());
+        for (int n = 0; n < a + b; n++) {
+          assertEquals(n, (int) t.get(n));
+        }
+        for (int n = 0; n < a + b; n++) {
+          assertEquals(n, (int) t.head());
+          t = t.tail();
+        }
+      }
+    }
+  }
+
+  @Test
+  public void concatLarge() {
+    FingerTreeSeq<Integer> t = new FingerTreeSeq<Integer>();
+    int size = 0;
+    for (int n = 1; n < 100; n++) {
+      t = t.concat(build(size, size + n * 7));
+      size += n * 7;
+    }
+    FingerTreeSeq<Integer> u = t.concat(t);
+    assertEquals(size, t.size());
+    assertEquals(size * 2, u.size());
+    for (int n = 0; n < size * 2; n++) {
+      assertEquals(n % size, (int) u.get(n));
+    }
+  }
+
+  @Test
+  public void splitAt() {
+    for (int size = 0; size < 200; size++) {
+      FingerTreeSeq<Integer> t = build(0, size);
+      for (int index = 0; index <= size; index++) {
+        FingerTreeSeq.Split<Integer> split = t.splitAt(index);
+        assertRange(split.left(), 0, index);
+        assertRange(split.right(), index, size);
+        assertRange(t.take(index), 0, index);
+        assertRange(t.drop(index), index, size);
+      }
+    }
+  }
+
+  @Test
+  public void splitAtLarge() {
+    FingerTreeSeq<Integer> t = build(0, 5000);
+    for (int index = 0; index <= 5000; index += 97) {
+      FingerTreeSeq.Split<Integer> split = t.splitAt(index);
+      assertRange(split.left(), 0, index);
+      assertRange(split.right(), index, 5000);
+      assertRange(split.left().concat(split.right()), 0, 5000);
+    }
+  }
+
+  @Test
+  public void subSeq() {
+    FingerTreeSeq<Integer> t = build(0, 100);
+    for (int from = 0; from <= 100; from += 3) {
+      for (int to = from; to <= 100; to += 5) {
+        assertRange(t.subSeq(from, to), from, to);
+      }
+    }
+  }
+
+  @Test
+  public void insertAndRemove() {
+    ArrayList<Integer> expected = new ArrayList<Integer>();
+    FingerTreeSeq<Integer> t = new FingerTreeSeq<Integer>();
+    Random random = new Random(1);
+    for (int n = 0; n < 3000; n++) {
+      if (expected.isEmpty() || random.nextInt(3) > 0) {
+        int index = random.nextInt(expected.size() + 1);
+        expected.add(index, n);
+        t = t.insert(index, n);
+      }
+      else {
+        int index = random.nextInt(expected.size());
+        expected.remove(index);
+        t = t.remove(index);
+      }
+      assertEquals(expected.size(), t.size());
+    }
+    for (int n = 0; n < expected.size(); n++) {
+      assertEquals(expected.get(n), t.get(n));
+    }
+  }
+
+  @Test(expected = Seq.RangeException.class)
+  public void splitAtOutOfRange() {
+    build(0, 10).splitAt(11);
+  }
+
+  @Test(expected = Seq.RangeException.class)
+  public void removeOutOfRange() {
+    build(0, 10).remove(10);
+  }
+
+  @Test
+  public void fromArray() {
+    for (int size = 0; size < 300; size++) {
+      Integer[] elements = new Integer[size];
+      for (int n = 0; n < size; n++) {
+        elements[n] = n;
+      }
+      FingerTreeSeq<Integer> t = FingerTreeSeq.fromArray(elements);
+      assertRange(t, 0, size);
+      for (int n = 0; n < size; n++) {
+        assertEquals(n, (int) t.get(n));
+      }
+      assertRange(t.snoc(size), 0, size + 1);
+      assertRange(t.concat(build(size, size + 20)), 0, size + 20);
+      assertRange(FingerTreeSeq.fromIterable(Arrays.asList(elements)), 0, size);
+    }
+  }
+
+  @Test
+  public void builder() {
+    FingerTreeSeq.Builder<Integer> builder = new FingerTreeSeq.Builder<Integer>();
+    for (int n = 0; n < 10000; n++) {
+      builder.add(n);
+    }
+    FingerTreeSeq<Integer> t = builder.build();
+    assertRange(t, 0, 10000);
+    assertRange(t.drop(5000).take(3000), 5000, 8000);
+    assertEquals(0, new FingerTreeSeq.Builder<Integer>().build().size());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void builderBuiltTwice() {
+    FingerTreeSeq.Builder<Integer> builder = new FingerTreeSeq.Builder<Integer>();
+    builder.add(1).build();
+    builder.add(2);
+  }
+
+  @Test
+  public void iterator() {
+    for (int size = 0; size < 300; size++) {
+      assertIterators(build(0, size), size);
+      assertIterators(build(0, size / 2).concat(build(size / 2, size)), size);
+    }
+    FingerTreeSeq<Integer> t = build(0, 1000).concat(build(1000, 5000));
+    assertIterators(t, 5000);
+    assertIterators(t.subSeq(0, 4321), 4321);
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void iteratorExhausted() {
+    Iterator<Integer> it = build(0, 1).iterator();
+    it.next();
+    it.next();
+  }
+
+  static void assertIterators(FingerTreeSeq<Integer> t, int size) {
+    assertEquals(size, t.size());
+    Iterator<Integer> it = t.iterator();
+    for (int n = 0; n < size; n++) {
+      assertTrue(it.hasNext());
+      assertEquals(t.get(n), it.next());
+    }
+    assertFalse(it.hasNext());
+    Iterator<Integer> reverse = t.reverseIterator();
+    for (int n = size - 1; n >= 0; n--) {
+      assertTrue(reverse.hasNext());
+      assertEquals(t.get(n), reverse.next());
+    }
+    assertFalse(reverse.hasNext());
+  }
+
+  static void assertRange(FingerTreeSeq<Integer> t, int from, int to) {
+    assertEquals(to - from, t.size());
+    for (int n = from; n < to; n++) {
+      assertEquals(n, (int) t.head());
+      t = t.tail();
+    }
+  }
+
+  static FingerTreeSeq<Integer> build(int from, int to) {
+    FingerTreeSeq<Integer> t = new FingerTreeSeq<Integer>();
+    for (int n = from; n < to; n++) {
+      t = t.snoc(n);
+    }
+    return t;
+  }
+
   class Sum implements Seq.Visitor<Integer> {
     int sum;
 
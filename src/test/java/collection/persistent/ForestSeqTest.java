@@ -2,6 +2,10 @@ package collection.persistent;
 
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
 import static org.junit.Assert.*;
 
 public class ForestSeqTest {
@@ -53,6 +57,86 @@ public class ForestSeqTest {
     assertEquals(1000, sum.sum);
   }
 
+  @Test
+  public void fromArray() {
+    for (int size = 0; size < 300; size++) {
+      Integer[] elements = new Integer[size];
+      for (int n = 0; n < size; n++) {
+        elements[n] = n;
+      }
+      ForestSeq<Integer> t = ForestSeq.fromArray(elements);
+      assertEquals(size, t.size());
+      for (int n = 0; n < size; n++) {
+        assertEquals(n, (int) t.get(n));
+      }
+      // The forest is canonical, so consing keeps it valid.
+      ForestSeq<Integer> c = t.cons(-1);
+      for (int n = -1; n < size; n++) {
+        assertEquals(n, (int) c.get(n + 1));
+      }
+      for (int n = 0; n < size; n++) {
+        assertEquals(n, (int) t.head());
+        t = t.tail();
+      }
+      assertEquals(0, t.size());
+    }
+  }
+
+  @Test
+  public void builder() {
+    ForestSeq.Builder<Integer> builder = new ForestSeq.Builder<Integer>();
+    for (int n = 0; n < 10000; n++) {
+      builder.add(n);
+    }
+    ForestSeq<Integer> t = builder.build();
+    ForestSeq<Integer> u = t.set(5000, -1);
+    for (int n = 0; n < 10000; n++) {
+      assertEquals(n, (int) t.get(n));
+      assertEquals(n == 5000 ? -1 : n, (int) u.get(n));
+    }
+    assertEquals(3, (int) ForestSeq.fromIterable(Arrays.asList(1, 2, 3)).get(2));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void builderBuiltTwice() {
+    ForestSeq.Builder<Integer> builder = new ForestSeq.Builder<Integer>();
+    builder.add(1).build();
+    builder.add(2);
+  }
+
+  @Test
+  public void iterator() {
+    ForestSeq<Integer> t = new ForestSeq<Integer>();
+    for (int size = 0; size < 300; size++) {
+      assertIterators(t, size);
+      t = t.cons(size);
+    }
+    assertIterators(t.tail().tail().tail(), 297);
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void iteratorExhausted() {
+    Iterator<Integer> it = new ForestSeq<Integer>().cons(1).iterator();
+    it.next();
+    it.next();
+  }
+
+  static void assertIterators(ForestSeq<Integer> t, int size) {
+    assertEquals(size, t.size());
+    Iterator<Integer> it = t.iterator();
+    for (int n = 0; n < size; n++) {
+      assertTrue(it.hasNext());
+      assertEquals(t.get(n), it.next());
+    }
+    assertFalse(it.hasNext());
+    Iterator<Integer> reverse = t.reverseIterator();
+    for (int n = size - 1; n >= 0; n--) {
+      assertTrue(reverse.hasNext());
+      assertEquals(t.get(n), reverse.next());
+    }
+    assertFalse(reverse.hasNext());
+  }
+
   class Sum implements Seq.Visitor<Integer> {
     int sum;
 
@@ -19,21 +19,21 @@ public abstract class HashMapTest {
 
     map = map.put(null, "null");
     assertEquals("null", map.get(null));
-    //assertEquals(1, map.size());
+    assertEquals(1, map.size());
     assertEquals(null, map.list().head().getKey());
     assertEquals("null", map.list().head().getValue());
     assertNull(map.list().tail());
 
     map = map.put(null, "haha");
     assertEquals("haha", map.get(null));
-    //assertEquals(1, map.size());
+    assertEquals(1, map.size());
     assertEquals(null, map.list().head().getKey());
     assertEquals("haha", map.list().head().getValue());
     assertNull(map.list().tail());
 
     map = map.remove(null);
     assertNull(map.get(null));
-    //assertEquals(0, map.size());
+    assertEquals(0, map.size());
     assertNull(map.list());
   }
 
@@ -41,7 +41,7 @@ public abstract class HashMapTest {
   public void smallMap() {
     Map<Integer, String> map = create();
 
-    //assertEquals(0, map.size());
+    assertEquals(0, map.size());
     assertNull(map.get(0));
     assertNull(map.get(1));
     assertNull(map.get(2));
@@ -51,7 +51,7 @@ public abstract class HashMapTest {
     map = map.put(1, "one");
     map = map.put(2, "two");
     map = map.put(3, "three");
-    //assertEquals(3, map.size());
+    assertEquals(3, map.size());
     assertNull(map.get(0));
     assertEquals("one", map.get(1));
     assertEquals("two", map.get(2));
@@ -60,7 +60,7 @@ public abstract class HashMapTest {
     assertEqualValues(map, "one", "two", "three");
 
     map = map.put(1, "ONE");
-    //assertEquals(3, map.size());
+    assertEquals(3, map.size());
     assertNull(map.get(0));
     assertEquals("ONE", map.get(1));
     assertEquals("two", map.get(2));
@@ -69,7 +69,7 @@ public abstract class HashMapTest {
     assertEqualValues(map, "ONE", "two", "three");
 
     map = map.put(2, "TWO");
-    //assertEquals(3, map.size());
+    assertEquals(3, map.size());
     assertNull(map.get(0));
     assertEquals("ONE", map.get(1));
     assertEquals("TWO", map.get(2));
@@ -78,7 +78,7 @@ public abstract class HashMapTest {
     assertEqualValues(map, "ONE", "TWO", "three");
 
     map = map.put(3, "THREE");
-    //assertEquals(3, map.size());
+    assertEquals(3, map.size());
     assertNull(map.get(0));
     assertEquals("ONE", map.get(1));
     assertEquals("TWO", map.get(2));
@@ -90,7 +90,7 @@ public abstract class HashMapTest {
     map = map.remove(1);
     map = map.remove(2);
     map = map.remove(3);
-    //assertEquals(0, map.size());
+    assertEquals(0, map.size());
     assertNull(map.get(0));
     assertNull(map.get(1));
     assertNull(map.get(2));
@@ -104,6 +104,7 @@ public abstract class HashMapTest {
 
     for (int n = 0; n < 100000; n++) {
       map = map.put(Integer.toString(n, 8), Integer.toString(n, 16));
+      assertEquals(n + 1, map.size());
     }
 
     for (int n = 0; n < 100000; n++) {
@@ -121,6 +122,7 @@ public abstract class HashMapTest {
 
     for (int n = 0; n < 100000; n++) {
       map = map.remove(Integer.toString(n, 8));
+      assertEquals(100000 - n - 1, map.size());
     }
 
     assertFalse(map.iterator().hasNext());
@@ -167,7 +169,7 @@ public abstract class HashMapTest {
 
     map = map.put(a, "a").put(b, "b").put(c, "c");
 
-    //assertEquals(3, map.size());
+    assertEquals(3, map.size());
 
     assertEquals("a", map.get(a));
     assertEquals("b", map.get(b));
@@ -178,7 +180,7 @@ public abstract class HashMapTest {
 
     map = map.remove(a);
 
-    //assertEquals(2, map.size());
+    assertEquals(2, map.size());
 
     assertNull(map.get(a));
     assertEquals("b", map.get(b));
@@ -189,7 +191,7 @@ public abstract class HashMapTest {
 
     map = map.remove(b);
 
-    //assertEquals(1, map.size());
+    assertEquals(1, map.size());
 
     assertNull(map.get(a));
     assertNull(map.get(b));
@@ -200,7 +202,7 @@ public abstract class HashMapTest {
 
     map = map.remove(c);
 
-    //assertEquals(0, map.size());
+    assertEquals(0, map.size());
 
     assertNull(map.get(a));
     assertNull(map.get(b));
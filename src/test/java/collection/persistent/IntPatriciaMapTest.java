@@ -0,0 +1,104 @@
+package collection.persistent;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class IntPatriciaMapTest {
+  @Test
+  public void smallMap() {
+    IntPatriciaMap<String> map = new IntPatriciaMap<String>();
+
+    assertEquals(0, map.size());
+    assertNull(map.get(0));
+    assertFalse(map.containsKey(0));
+    assertFalse(map.iterator().hasNext());
+
+    map = map.put(1, "one").put(2, "two").put(-3, "minus three");
+    assertEquals(3, map.size());
+    assertNull(map.get(0));
+    assertEquals("one", map.get(1));
+    assertEquals("two", map.get(2));
+    assertEquals("minus three", map.get(-3));
+    assertTrue(map.containsKey(-3));
+    assertFalse(map.containsKey(3));
+
+    map = map.put(1, "ONE");
+    assertEquals(3, map.size());
+    assertEquals("ONE", map.get(1));
+    assertSame(map, map.put(1, map.get(1)));
+
+    map = map.put(0, null);
+    assertEquals(4, map.size());
+    assertNull(map.get(0));
+    assertTrue(map.containsKey(0));
+
+    assertSame(map, map.remove(5));
+    map = map.remove(0).remove(1).remove(2);
+    assertEquals(1, map.size());
+    assertEquals("minus three", map.get(-3));
+    map = map.remove(-3);
+    assertEquals(0, map.size());
+    assertFalse(map.iterator().hasNext());
+  }
+
+  @Test
+  public void order() {
+    IntPatriciaMap<String> map = new IntPatriciaMap<String>();
+    int[] keys = {Integer.MIN_VALUE, -1, 0, 1, Integer.MAX_VALUE, 1000, -1000};
+    for (int key : keys) {
+      map = map.put(key, String.valueOf(key));
+    }
+    ArrayList<Integer> actual = new ArrayList<Integer>();
+    for (IntPatriciaMap.Entry<String> entry : map) {
+      assertEquals(String.valueOf(entry.getKey()), entry.getValue());
+      actual.add(entry.getKey());
+    }
+    ArrayList<Integer> expected = new ArrayList<Integer>();
+    expected.add(0);
+    expected.add(1);
+    expected.add(1000);
+    expected.add(Integer.MAX_VALUE);
+    expected.add(Integer.MIN_VALUE);
+    expected.add(-1000);
+    expected.add(-1);
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  public void largeMap() {
+    Random random = new Random(1);
+    HashMap<Integer, Integer> expected = new HashMap<Integer, Integer>();
+    IntPatriciaMap<Integer> map = new IntPatriciaMap<Integer>();
+    for (int n = 0; n < 100000; n++) {
+      int key = random.nextInt(200000) - 100000;
+      if (random.nextInt(4) == 0) {
+        expected.remove(key);
+        map = map.remove(key);
+      }
+      else {
+        expected.put(key, n);
+        map = map.put(key, n);
+      }
+      assertEquals(expected.size(), map.size());
+    }
+    for (int key = -100000; key < 100000; key++) {
+      assertEquals(expected.get(key), map.get(key));
+      assertEquals(expected.containsKey(key), map.containsKey(key));
+    }
+    int count = 0;
+    long last = -1;
+    for (IntPatriciaMap.Entry<Integer> entry : map) {
+      long unsigned = entry.getKey() & 0xFFFFFFFFL;
+      assertTrue(unsigned > last);
+      last = unsigned;
+      assertEquals(expected.get(entry.getKey()), entry.getValue());
+      count++;
+    }
+    assertEquals(expected.size(), count);
+  }
+}
@@ -0,0 +1,106 @@
+package collection.persistent;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LongPatriciaMapTest {
+  @Test
+  public void smallMap() {
+    LongPatriciaMap<String> map = new LongPatriciaMap<String>();
+
+    assertEquals(0, map.size());
+    assertNull(map.get(0));
+    assertFalse(map.containsKey(0));
+    assertFalse(map.iterator().hasNext());
+
+    map = map.put(1, "one").put(2, "two").put(-3, "minus three");
+    assertEquals(3, map.size());
+    assertNull(map.get(0));
+    assertEquals("one", map.get(1));
+    assertEquals("two", map.get(2));
+    assertEquals("minus three", map.get(-3));
+    assertTrue(map.containsKey(-3));
+    assertFalse(map.containsKey(3));
+
+    map = map.put(1, "ONE");
+    assertEquals(3, map.size());
+    assertEquals("ONE", map.get(1));
+    assertSame(map, map.put(1, map.get(1)));
+
+    map = map.put(0, null);
+    assertEquals(4, map.size());
+    assertNull(map.get(0));
+    assertTrue(map.containsKey(0));
+
+    assertSame(map, map.remove(5));
+    map = map.remove(0).remove(1).remove(2);
+    assertEquals(1, map.size());
+    assertEquals("minus three", map.get(-3));
+    map = map.remove(-3);
+    assertEquals(0, map.size());
+    assertFalse(map.iterator().hasNext());
+  }
+
+  @Test
+  public void order() {
+    LongPatriciaMap<String> map = new LongPatriciaMap<String>();
+    long[] keys = {Long.MIN_VALUE, -1, 0, 1, Long.MAX_VALUE, 1000, -1000};
+    for (long key : keys) {
+      map = map.put(key, String.valueOf(key));
+    }
+    ArrayList<Long> actual = new ArrayList<Long>();
+    for (LongPatriciaMap.Entry<String> entry : map) {
+      assertEquals(String.valueOf(entry.getKey()), entry.getValue());
+      actual.add(entry.getKey());
+    }
+    ArrayList<Long> expected = new ArrayList<Long>();
+    expected.add(0L);
+    expected.add(1L);
+    expected.add(1000L);
+    expected.add(Long.MAX_VALUE);
+    expected.add(Long.MIN_VALUE);
+    expected.add(-1000L);
+    expected.add(-1L);
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  public void largeMap() {
+    Random random = new Random(1);
+    HashMap<Long, Integer> expected = new HashMap<Long, Integer>();
+    LongPatriciaMap<Integer> map = new LongPatriciaMap<Integer>();
+    for (int n = 0; n < 100000; n++) {
+      long key = (random.nextInt(200000) - 100000L) << 20;
+      if (random.nextInt(4) == 0) {
+        expected.remove(key);
+        map = map.remove(key);
+      }
+      else {
+        expected.put(key, n);
+        map = map.put(key, n);
+      }
+      assertEquals(expected.size(), map.size());
+    }
+    for (long n = -100000; n < 100000; n++) {
+      long key = n << 20;
+      assertEquals(expected.get(key), map.get(key));
+      assertEquals(expected.containsKey(key), map.containsKey(key));
+    }
+    int count = 0;
+    long last = 0;
+    for (LongPatriciaMap.Entry<Integer> entry : map) {
+      // Flip the sign bit to compare as unsigned.
+      long unsigned = entry.getKey() ^ Long.MIN_VALUE;
+      assertTrue(count == 0 || unsigned > last);
+      last = unsigned;
+      assertEquals(expected.get(entry.getKey()), entry.getValue());
+      count++;
+    }
+    assertEquals(expected.size(), count);
+  }
+}
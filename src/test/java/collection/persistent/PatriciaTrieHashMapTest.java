@@ -1,8 +1,169 @@
 package collection.persistent;
 
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
 public class PatriciaTrieHashMapTest extends HashMapTest {
   @Override
   <K, V> Map<K, V> create() {
     return new PatriciaTrieHashMap<K, V>();
   }
+
+  @Test
+  public void union() {
+    Random random = new Random(1);
+    for (int round = 0; round < 100; round++) {
+      HashMap<Key, Integer> a = randomMap(random, round);
+      HashMap<Key, Integer> b = randomMap(random, round);
+      HashMap<Key, Integer> expected = new HashMap<Key, Integer>(a);
+      expected.putAll(b);
+      assertEqualMaps(expected, build(a).union(build(b)));
+    }
+  }
+
+  @Test
+  public void merge() {
+    PatriciaTrieHashMap.Resolver<Key, Integer> sum =
+        new PatriciaTrieHashMap.Resolver<Key, Integer>() {
+          @Override
+          public Integer resolve(Key key, Integer a, Integer b) {
+            return a * 1000 + b;
+          }
+        };
+    Random random = new Random(2);
+    for (int round = 0; round < 100; round++) {
+      HashMap<Key, Integer> a = randomMap(random, round);
+      HashMap<Key, Integer> b = randomMap(random, round);
+      HashMap<Key, Integer> expected = new HashMap<Key, Integer>(a);
+      for (java.util.Map.Entry<Key, Integer> entry : b.entrySet()) {
+        Integer value = a.get(entry.getKey());
+        if (value != null) {
+          expected.put(entry.getKey(), value * 1000 + entry.getValue());
+        }
+        else {
+          expected.put(entry.getKey(), entry.getValue());
+        }
+      }
+      assertEqualMaps(expected, build(a).merge(build(b), sum));
+    }
+  }
+
+  @Test
+  public void intersection() {
+    Random random = new Random(3);
+    for (int round = 0; round < 100; round++) {
+      HashMap<Key, Integer> a = randomMap(random, round);
+      HashMap<Key, Integer> b = randomMap(random, round);
+      HashMap<Key, Integer> expected = new HashMap<Key, Integer>(a);
+      expected.keySet().retainAll(b.keySet());
+      assertEqualMaps(expected, build(a).intersection(build(b)));
+    }
+  }
+
+  @Test
+  public void difference() {
+    Random random = new Random(4);
+    for (int round = 0; round < 100; round++) {
+      HashMap<Key, Integer> a = randomMap(random, round);
+      HashMap<Key, Integer> b = randomMap(random, round);
+      HashMap<Key, Integer> expected = new HashMap<Key, Integer>(a);
+      expected.keySet().removeAll(b.keySet());
+      assertEqualMaps(expected, build(a).difference(build(b)));
+    }
+  }
+
+  @Test
+  public void sameMap() {
+    PatriciaTrieHashMap<Key, Integer> map = build(randomMap(new Random(5), 50));
+    PatriciaTrieHashMap<Key, Integer> empty = new PatriciaTrieHashMap<Key, Integer>();
+    assertSame(map, map.union(map));
+    assertSame(map, map.intersection(map));
+    assertEquals(0, map.difference(map).size());
+    assertSame(map, map.union(empty));
+    assertSame(map, empty.union(map));
+    assertSame(map, map.difference(empty));
+    assertEquals(0, map.intersection(empty).size());
+    assertEquals(0, empty.intersection(map).size());
+  }
+
+  @Test
+  public void sharedVersions() {
+    PatriciaTrieHashMap<Key, Integer> base = build(randomMap(new Random(6), 200))
+        .put(new Key(3), 3);
+    PatriciaTrieHashMap<Key, Integer> a = base.put(new Key(100000), 1);
+    PatriciaTrieHashMap<Key, Integer> b = base.put(new Key(100001), 2).remove(new Key(3));
+
+    PatriciaTrieHashMap<Key, Integer> union = a.union(b);
+    assertEquals(base.size() + 2, union.size());
+    assertEquals(Integer.valueOf(1), union.get(new Key(100000)));
+    assertEquals(Integer.valueOf(2), union.get(new Key(100001)));
+
+    PatriciaTrieHashMap<Key, Integer> intersection = a.intersection(b);
+    assertEquals(b.size() - 1, intersection.size());
+    assertNull(intersection.get(new Key(100000)));
+    assertNull(intersection.get(new Key(100001)));
+
+    PatriciaTrieHashMap<Key, Integer> difference = a.difference(b);
+    assertEquals(2, difference.size());
+    assertEquals(Integer.valueOf(1), difference.get(new Key(100000)));
+    assertEquals(base.get(new Key(3)), difference.get(new Key(3)));
+  }
+
+  private static HashMap<Key, Integer> randomMap(Random random, int size) {
+    HashMap<Key, Integer> map = new HashMap<Key, Integer>();
+    for (int n = 0; n < size; n++) {
+      map.put(new Key(random.nextInt(size * 2 + 1)), random.nextInt());
+    }
+    return map;
+  }
+
+  private static PatriciaTrieHashMap<Key, Integer> build(HashMap<Key, Integer> source) {
+    PatriciaTrieHashMap<Key, Integer> map = new PatriciaTrieHashMap<Key, Integer>();
+    for (java.util.Map.Entry<Key, Integer> entry : source.entrySet()) {
+      map = map.put(entry.getKey(), entry.getValue());
+    }
+    return map;
+  }
+
+  private static void assertEqualMaps(HashMap<Key, Integer> expected,
+                                      PatriciaTrieHashMap<Key, Integer> actual) {
+    assertEquals(expected.size(), actual.size());
+    for (java.util.Map.Entry<Key, Integer> entry : expected.entrySet()) {
+      assertEquals(entry.getValue(), actual.get(entry.getKey()));
+    }
+    int count = 0;
+    for (Map.Entry<Key, Integer> entry : actual) {
+      assertEquals(expected.get(entry.getKey()), entry.getValue());
+      count++;
+    }
+    assertEquals(expected.size(), count);
+  }
+
+  /** Key with frequent hash code collisions. */
+  private static final class Key {
+    final int id;
+
+    Key(int id) {
+      this.id = id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Key && ((Key) o).id == id;
+    }
+
+    @Override
+    public int hashCode() {
+      return id / 3;
+    }
+
+    @Override
+    public String toString() {
+      return "Key" + id;
+    }
+  }
 }
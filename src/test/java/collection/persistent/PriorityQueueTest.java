@@ -0,0 +1,71 @@
+package collection.persistent;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PriorityQueueTest {
+  @Test
+  public void queue() {
+    PriorityQueue<String> q = new PriorityQueue<String>();
+    assertEquals(0, q.size());
+    assertTrue(q.isEmpty());
+    q = q.push(3, "c").push(1, "a").push(2, "b").push(1, "A");
+    assertEquals(4, q.size());
+    assertEquals("a", q.peek());
+    assertEquals(1, q.peekPriority());
+    PriorityQueue<String> p = q.pop();
+    assertEquals("A", p.peek());
+    p = p.pop();
+    assertEquals("b", p.peek());
+    p = p.pop();
+    assertEquals("c", p.peek());
+    assertEquals(3, p.peekPriority());
+    p = p.pop();
+    assertTrue(p.isEmpty());
+    // The original version is unchanged.
+    assertEquals(4, q.size());
+    assertEquals("a", q.peek());
+  }
+
+  @Test
+  public void random() {
+    Random random = new Random(1);
+    ArrayList<int[]> expected = new ArrayList<int[]>();
+    PriorityQueue<Integer> q = new PriorityQueue<Integer>();
+    for (int n = 0; n < 5000; n++) {
+      if (expected.isEmpty() || random.nextInt(3) > 0) {
+        int priority = random.nextInt(100);
+        expected.add(new int[]{priority, n});
+        q = q.push(priority, n);
+      }
+      else {
+        int min = 0;
+        for (int i = 1; i < expected.size(); i++) {
+          if (expected.get(i)[0] < expected.get(min)[0]) {
+            min = i;
+          }
+        }
+        assertEquals(expected.get(min)[0], q.peekPriority());
+        assertEquals(expected.get(min)[1], (int) q.peek());
+        expected.remove(min);
+        q = q.pop();
+      }
+      assertEquals(expected.size(), q.size());
+    }
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void peekEmpty() {
+    new PriorityQueue<String>().peek();
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void popEmpty() {
+    new PriorityQueue<String>().pop();
+  }
+}
@@ -2,6 +2,13 @@ package collection.persistent;
 
 import org.junit.Test;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
 import static org.junit.Assert.*;
 
 public abstract class QueueTest {
@@ -35,4 +42,131 @@ public abstract class QueueTest {
     assertEquals(0, q.size());
     assertTrue(q.isEmpty());
   }
+
+  @Test
+  public void versions() {
+    // Push and pop on random old versions of queue and
+    // check every version against the copy of its elements.
+    Random random = new Random(1);
+    ArrayList<Queue<Integer>> queues = new ArrayList<Queue<Integer>>();
+    ArrayList<ArrayDeque<Integer>> expected = new ArrayList<ArrayDeque<Integer>>();
+    queues.add(this.<Integer>create());
+    expected.add(new ArrayDeque<Integer>());
+    for (int n = 0; n < 10000; n++) {
+      int index = queues.size() - 1 - random.nextInt(Math.min(queues.size(), 5));
+      Queue<Integer> q = queues.get(index);
+      ArrayDeque<Integer> e = new ArrayDeque<Integer>(expected.get(index));
+      if (e.isEmpty() || random.nextInt(3) > 0) {
+        q = q.push(n);
+        e.addLast(n);
+      }
+      else {
+        assertEquals(e.removeFirst(), q.peek());
+        q = q.pop();
+      }
+      assertEquals(e.size(), q.size());
+      assertEquals(e.isEmpty(), q.isEmpty());
+      queues.add(q);
+      expected.add(e);
+    }
+    for (int n = 0; n < queues.size(); n += 100) {
+      Queue<Integer> q = queues.get(n);
+      for (Integer v : expected.get(n)) {
+        assertEquals(v, q.peek());
+        q = q.pop();
+      }
+      assertTrue(q.isEmpty());
+    }
+  }
+
+  @Test
+  public void batches() {
+    Queue<Integer> q = this.<Integer>create().push(1);
+    q = q.pushAll(Arrays.asList(2, 3, 4)).pushAll(new Integer[]{5, 6, 7});
+    assertEquals(7, q.size());
+    assertEquals(1, (int) q.peek());
+    q = q.popN(2);
+    assertEquals(5, q.size());
+    assertEquals(3, (int) q.peek());
+    List<Integer> list = new ArrayList<Integer>();
+    Queue<Integer> r = q.drainTo(list, 3);
+    assertEquals(Arrays.asList(3, 4, 5), list);
+    assertEquals(2, r.size());
+    assertEquals(6, (int) r.peek());
+    r = r.drainTo(list, 10);
+    assertEquals(Arrays.asList(3, 4, 5, 6, 7), list);
+    assertTrue(r.isEmpty());
+    assertEquals(5, q.size());
+    assertTrue(q.popN(5).isEmpty());
+    assertSame(q.popN(0).peek(), q.peek());
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void popTooMany() {
+    this.<Integer>create().push(1).popN(2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void popNegative() {
+    this.<Integer>create().push(1).popN(-1);
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void drainToNull() {
+    this.<Integer>create().push(1).drainTo(null, 1);
+  }
+
+  @Test
+  public void batchVersions() {
+    // Same as above, but with batches of random size.
+    Random random = new Random(1);
+    ArrayList<Queue<Integer>> queues = new ArrayList<Queue<Integer>>();
+    ArrayList<ArrayDeque<Integer>> expected = new ArrayList<ArrayDeque<Integer>>();
+    queues.add(this.<Integer>create());
+    expected.add(new ArrayDeque<Integer>());
+    for (int n = 0; n < 2000; n++) {
+      int index = queues.size() - 1 - random.nextInt(Math.min(queues.size(), 5));
+      Queue<Integer> q = queues.get(index);
+      ArrayDeque<Integer> e = new ArrayDeque<Integer>(expected.get(index));
+      int count = random.nextInt(100);
+      if (random.nextInt(3) > 0) {
+        List<Integer> values = new ArrayList<Integer>();
+        for (int k = 0; k < count; k++) {
+          values.add(n * 100 + k);
+        }
+        q = q.pushAll(values);
+        e.addAll(values);
+      }
+      else if (random.nextBoolean()) {
+        List<Integer> values = new ArrayList<Integer>();
+        q = q.drainTo(values, count);
+        assertEquals(Math.min(count, e.size()), values.size());
+        for (Integer v : values) {
+          assertEquals(e.removeFirst(), v);
+        }
+      }
+      else {
+        count = Math.min(count, e.size());
+        q = q.popN(count);
+        for (int k = 0; k < count; k++) {
+          e.removeFirst();
+        }
+      }
+      assertEquals(e.size(), q.size());
+      assertEquals(e.isEmpty(), q.isEmpty());
+      if (!e.isEmpty()) {
+        assertEquals(e.peekFirst(), q.peek());
+      }
+      queues.add(q);
+      expected.add(e);
+    }
+    for (int n = 0; n < queues.size(); n += 50) {
+      Queue<Integer> q = queues.get(n);
+      for (Integer v : expected.get(n)) {
+        assertEquals(v, q.peek());
+        q = q.pop();
+      }
+      assertTrue(q.isEmpty());
+    }
+  }
 }
@@ -0,0 +1,8 @@
+package collection.persistent;
+
+public class RealTimeDequeTest extends DequeTest {
+  @Override
+  <T> Deque<T> create() {
+    return new RealTimeDeque<T>();
+  }
+}
@@ -3,6 +3,10 @@ package collection.persistent;
 import org.junit.Test;
 
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
 import java.util.TreeSet;
 
 import static org.junit.Assert.*;
@@ -12,6 +16,7 @@ public class RedBlackTreeMapTest {
   public void smallMap() {
     Map<Integer, String> map = new RedBlackTreeMap<Integer, String>();
 
+    assertEquals(0, map.size());
     assertNull(map.get(0));
 
     map = map.put(1, "one");
@@ -24,6 +29,7 @@ public class RedBlackTreeMapTest {
     assertEqualKeys(map, 1, 2, 3);
     assertEqualValues(map, "one", "two", "three");
 
+    assertEquals(3, map.size());
     assertNull(map.get(0));
     assertEquals("one", map.get(1));
     assertEquals("two", map.get(2));
@@ -32,6 +38,7 @@ public class RedBlackTreeMapTest {
     assertEqualValues(map, "one", "two", "three");
 
     map = map.put(1, "uno");
+    assertEquals(3, map.size());
     assertNull(map.get(0));
     assertEquals("uno", map.get(1));
     assertEquals("two", map.get(2));
@@ -62,6 +69,7 @@ public class RedBlackTreeMapTest {
 
     for (int n = 0; n < 100000; n++) {
       map = map.put(Integer.toString(n, 8), Integer.toString(n, 16));
+      assertEquals(n + 1, map.size());
     }
 
     for (int n = 0; n < 100000; n++) {
@@ -69,14 +77,271 @@ public class RedBlackTreeMapTest {
     }
   }
 
+  @Test
+  public void removeSmall() {
+    RedBlackTreeMap<Integer, String> map = new RedBlackTreeMap<Integer, String>();
+    assertSame(map, map.remove(1));
+
+    map = map.put(1, "one").put(2, "two").put(3, "three");
+    assertSame(map, map.remove(0));
+    assertSame(map, map.remove(4));
+
+    map = map.remove(2);
+    assertEquals(2, map.size());
+    assertNull(map.get(2));
+    assertEqualKeys(map, 1, 3);
+    assertEqualValues(map, "one", "three");
+
+    map = map.remove(1);
+    assertEquals(1, map.size());
+    assertEqualKeys(map, 3);
+
+    map = map.remove(3);
+    assertEquals(0, map.size());
+    assertNull(map.list());
+  }
+
+  @Test
+  public void removeLarge() {
+    RedBlackTreeMap<Integer, Integer> map = new RedBlackTreeMap<Integer, Integer>();
+    for (int n = 0; n < 10000; n++) {
+      map = map.put(n, n);
+    }
+    RedBlackTreeMap<Integer, Integer> full = map;
+    for (int n = 0; n < 10000; n += 2) {
+      map = map.remove(n);
+      assertEquals(10000 - n / 2 - 1, map.size());
+    }
+    for (int n = 0; n < 10000; n++) {
+      assertEquals(n % 2 == 0 ? null : Integer.valueOf(n), map.get(n));
+      assertEquals(Integer.valueOf(n), full.get(n));
+    }
+    for (int n = 9999; n >= 0; n--) {
+      map = map.remove(n);
+    }
+    assertEquals(0, map.size());
+    assertEquals(0, map.height());
+    assertEquals(10000, full.size());
+  }
+
+  @Test
+  public void churn() {
+    Random random = new Random(1);
+    TreeMap<Integer, Integer> expected = new TreeMap<Integer, Integer>();
+    RedBlackTreeMap<Integer, Integer> map = new RedBlackTreeMap<Integer, Integer>();
+    for (int n = 0; n < 200000; n++) {
+      Integer key = random.nextInt(5000);
+      if (random.nextInt(3) == 0) {
+        expected.put(key, n);
+        map = map.put(key, n);
+      }
+      else {
+        expected.remove(key);
+        map = map.remove(key);
+      }
+      assertEquals(expected.size(), map.size());
+      assertTrue(map.height() <= 2 * log2(map.size() + 1));
+      assertTrue(map.isValid());
+    }
+    for (int key = 0; key < 5000; key++) {
+      assertEquals(expected.get(key), map.get(key));
+    }
+    Listable.List<Map.Entry<Integer, Integer>> list = map.list();
+    for (java.util.Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+      assertEquals(entry.getKey(), list.head().getKey());
+      assertEquals(entry.getValue(), list.head().getValue());
+      list = list.tail();
+    }
+    assertNull(list);
+    Iterator<Map.Entry<Integer, Integer>> it = map.iterator();
+    for (java.util.Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+      assertTrue(it.hasNext());
+      Map.Entry<Integer, Integer> actual = it.next();
+      assertEquals(entry.getKey(), actual.getKey());
+      assertEquals(entry.getValue(), actual.getValue());
+    }
+    assertFalse(it.hasNext());
+  }
+
+  @Test
+  public void iterator() {
+    RedBlackTreeMap<Integer, Integer> map = new RedBlackTreeMap<Integer, Integer>();
+    assertFalse(map.iterator().hasNext());
+    for (int size = 1; size <= 1000; size++) {
+      map = map.put(size, size);
+      int expected = 1;
+      for (Map.Entry<Integer, Integer> entry : map) {
+        assertEquals(Integer.valueOf(expected++), entry.getKey());
+      }
+      assertEquals(size + 1, expected);
+    }
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void iteratorExhausted() {
+    Iterator<Map.Entry<Integer, Integer>> it =
+        new RedBlackTreeMap<Integer, Integer>().put(1, 1).iterator();
+    it.next();
+    it.next();
+  }
+
+  @Test
+  public void navigation() {
+    RedBlackTreeMap<Integer, String> map = new RedBlackTreeMap<Integer, String>();
+    assertNull(map.first());
+    assertNull(map.last());
+    assertNull(map.floor(1));
+    assertNull(map.ceiling(1));
+    assertEquals(0, map.rank(1));
+    assertFalse(map.subMap(null, null).iterator().hasNext());
+
+    for (int n = 10; n <= 100; n += 10) {
+      map = map.put(n, Integer.toString(n));
+    }
+    assertEquals(Integer.valueOf(10), map.first().getKey());
+    assertEquals(Integer.valueOf(100), map.last().getKey());
+    assertNull(map.floor(9));
+    assertEquals(Integer.valueOf(10), map.floor(10).getKey());
+    assertEquals(Integer.valueOf(50), map.floor(59).getKey());
+    assertEquals(Integer.valueOf(100), map.floor(1000).getKey());
+    assertEquals(Integer.valueOf(10), map.ceiling(0).getKey());
+    assertEquals(Integer.valueOf(60), map.ceiling(51).getKey());
+    assertEquals(Integer.valueOf(60), map.ceiling(60).getKey());
+    assertNull(map.ceiling(101));
+  }
+
+  @Test
+  public void rankAndSelect() {
+    RedBlackTreeMap<Integer, Integer> map = new RedBlackTreeMap<Integer, Integer>();
+    for (int n = 0; n < 1000; n++) {
+      map = map.put(n * 2, n);
+    }
+    for (int n = 0; n < 1000; n++) {
+      assertEquals(n, map.rank(n * 2));
+      assertEquals(n + 1, map.rank(n * 2 + 1));
+      assertEquals(Integer.valueOf(n * 2), map.select(n).getKey());
+    }
+    assertEquals(0, map.rank(-1));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void selectOutOfRange() {
+    new RedBlackTreeMap<Integer, Integer>().put(1, 1).select(1);
+  }
+
+  @Test
+  public void subMap() {
+    Random random = new Random(2);
+    TreeMap<Integer, Integer> expected = new TreeMap<Integer, Integer>();
+    RedBlackTreeMap<Integer, Integer> map = new RedBlackTreeMap<Integer, Integer>();
+    for (int n = 0; n < 1000; n++) {
+      int key = random.nextInt(2000);
+      expected.put(key, n);
+      map = map.put(key, n);
+    }
+    for (int n = 0; n < 200; n++) {
+      int from = random.nextInt(2100) - 50;
+      int to = from + random.nextInt(300);
+      assertEqualEntries(expected.subMap(from, to), map.subMap(from, to));
+      assertEqualEntries(expected.headMap(to), map.subMap(null, to));
+      assertEqualEntries(expected.tailMap(from), map.subMap(from, null));
+    }
+    assertEqualEntries(expected, map.subMap(null, null));
+  }
+
+  @Test
+  public void fromSorted() {
+    for (int size = 0; size < 300; size++) {
+      Integer[] keys = new Integer[size];
+      String[] values = new String[size];
+      for (int n = 0; n < size; n++) {
+        keys[n] = n * 2;
+        values[n] = Integer.toString(n);
+      }
+      RedBlackTreeMap<Integer, String> map = RedBlackTreeMap.fromSorted(keys, values);
+      assertEquals(size, map.size());
+      assertTrue(map.isValid());
+      int index = 0;
+      for (Map.Entry<Integer, String> entry : map) {
+        assertEquals(keys[index], entry.getKey());
+        assertEquals(values[index], entry.getValue());
+        index++;
+      }
+      assertEquals(size, index);
+      for (int n = 0; n < size; n += 3) {
+        map = map.remove(n * 2).put(n * 2 + 1, "x");
+        assertTrue(map.isValid());
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void fromSortedUnsorted() {
+    RedBlackTreeMap.fromSorted(new Integer[]{1, 3, 2}, new String[]{"1", "3", "2"});
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void fromSortedDuplicates() {
+    RedBlackTreeMap.fromSorted(new Integer[]{1, 2, 2}, new String[]{"1", "2", "2"});
+  }
+
+  @Test
+  public void builder() {
+    Random random = new Random(3);
+    TreeMap<Integer, Integer> expected = new TreeMap<Integer, Integer>();
+    RedBlackTreeMap.Builder<Integer, Integer> builder =
+        new RedBlackTreeMap.Builder<Integer, Integer>();
+    for (int n = 0; n < 10000; n++) {
+      int key = random.nextInt(5000);
+      expected.put(key, n);
+      builder.put(key, n);
+    }
+    RedBlackTreeMap<Integer, Integer> map = builder.build();
+    assertTrue(map.isValid());
+    assertEquals(expected.size(), map.size());
+    assertEqualEntries(expected, map);
+  }
+
+  @Test
+  public void emptyBuilder() {
+    RedBlackTreeMap<Integer, Integer> map =
+        new RedBlackTreeMap.Builder<Integer, Integer>().build();
+    assertEquals(0, map.size());
+    assertFalse(map.iterator().hasNext());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void builderBuiltTwice() {
+    RedBlackTreeMap.Builder<Integer, Integer> builder =
+        new RedBlackTreeMap.Builder<Integer, Integer>();
+    builder.build();
+    builder.build();
+  }
+
+  static void assertEqualEntries(java.util.Map<Integer, Integer> expected,
+                                 Iterable<Map.Entry<Integer, Integer>> actual) {
+    Iterator<Map.Entry<Integer, Integer>> it = actual.iterator();
+    for (java.util.Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+      assertTrue(it.hasNext());
+      Map.Entry<Integer, Integer> next = it.next();
+      assertEquals(entry.getKey(), next.getKey());
+      assertEquals(entry.getValue(), next.getValue());
+    }
+    assertFalse(it.hasNext());
+  }
+
+  static int log2(int n) {
+    return 32 - Integer.numberOfLeadingZeros(n);
+  }
+
   static <K, V> void assertEqualKeys(Map<K, V> map, K... keys) {
     TreeSet<K> expected = new TreeSet<K>(Arrays.asList(keys));
 
     TreeSet<K> actual = new TreeSet<K>();
-//    for (Map.Entry<K, V> entry : map) {
-//      assertTrue(actual.add(entry.getKey()));
-//    }
-//    assertEquals(expected, actual);
+    for (Map.Entry<K, V> entry : map) {
+      assertTrue(actual.add(entry.getKey()));
+    }
+    assertEquals(expected, actual);
 
     actual.clear();
     Listable.List<Map.Entry<K, V>> list = map.list();
@@ -91,10 +356,10 @@ public class RedBlackTreeMapTest {
     TreeSet<V> expected = new TreeSet<V>(Arrays.asList(values));
 
     TreeSet<V> actual = new TreeSet<V>();
-//    for (Map.Entry<K, V> entry : map) {
-//      assertTrue(actual.add(entry.getValue()));
-//    }
-//    assertEquals(expected, actual);
+    for (Map.Entry<K, V> entry : map) {
+      assertTrue(actual.add(entry.getValue()));
+    }
+    assertEquals(expected, actual);
 
     actual.clear();
     Listable.List<Map.Entry<K, V>> list = map.list();
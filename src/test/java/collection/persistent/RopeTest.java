@@ -0,0 +1,121 @@
+package collection.persistent;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RopeTest {
+  @Test
+  public void rope() {
+    Rope r = new Rope();
+    assertEquals(0, r.length());
+    assertEquals("", r.toString());
+    r = r.insert(0, "world").insert(0, "hello ").insert(11, "!");
+    assertEquals("hello world!", r.toString());
+    assertEquals(12, r.length());
+    assertEquals('w', r.charAt(6));
+    assertEquals("world", r.substring(6, 11).toString());
+    assertEquals("hello!", r.delete(5, 11).toString());
+    assertEquals("hello world!hello world!", r.concat(r).toString());
+    assertEquals("lo w", r.subSequence(3, 7).toString());
+    // The original version is unchanged.
+    assertEquals("hello world!", r.toString());
+  }
+
+  @Test
+  public void random() {
+    Random random = new Random(1);
+    StringBuilder expected = new StringBuilder();
+    Rope r = new Rope();
+    for (int n = 0; n < 2000; n++) {
+      if (expected.length() > 0 && random.nextInt(3) == 0) {
+        int start = random.nextInt(expected.length());
+        int end = start + random.nextInt(Math.min(expected.length() - start, 300) + 1);
+        expected.delete(start, end);
+        r = r.delete(start, end);
+      }
+      else {
+        int index = random.nextInt(expected.length() + 1);
+        String text = text(random, random.nextInt(Rope.CHUNK_SIZE * 3));
+        expected.insert(index, text);
+        r = r.insert(index, text);
+      }
+      assertEquals(expected.length(), r.length());
+      if (expected.length() > 0) {
+        int index = random.nextInt(expected.length());
+        assertEquals(expected.charAt(index), r.charAt(index));
+        int start = random.nextInt(expected.length());
+        int end = start + random.nextInt(expected.length() - start + 1);
+        assertEquals(expected.substring(start, end), r.substring(start, end).toString());
+      }
+    }
+    assertEquals(expected.toString(), r.toString());
+    for (int index = 0; index < expected.length(); index++) {
+      assertEquals(expected.charAt(index), r.charAt(index));
+    }
+  }
+
+  @Test
+  public void chunks() {
+    // Typing and erasing one character at a time
+    // must not leave short chunks behind.
+    Random random = new Random(1);
+    StringBuilder expected = new StringBuilder(text(random, 1000));
+    Rope r = new Rope(expected);
+    for (int n = 0; n < 20000; n++) {
+      if (expected.length() > 0 && random.nextInt(3) == 0) {
+        int index = random.nextInt(expected.length());
+        expected.deleteCharAt(index);
+        r = r.delete(index, index + 1);
+      }
+      else {
+        int index = random.nextInt(expected.length() + 1);
+        char c = (char) ('a' + random.nextInt(26));
+        expected.insert(index, c);
+        r = r.insert(index, String.valueOf(c));
+      }
+      assertTrue(r.chunks() <= 2 * r.length() / Rope.CHUNK_SIZE + 1);
+    }
+    assertEquals(expected.toString(), r.toString());
+    Rope s = r.substring(1, 2).concat(r.substring(5, 6)).concat(new Rope("x"));
+    assertEquals(1, s.chunks());
+    assertEquals(r.substring(1, 2).toString() + r.substring(5, 6) + "x", s.toString());
+  }
+
+  @Test
+  public void concat() {
+    Random random = new Random(1);
+    String a = text(random, 1000);
+    String b = text(random, 777);
+    Rope r = new Rope(a).concat(new Rope(b));
+    assertEquals(a + b, r.toString());
+    assertEquals(a.substring(900) + b.substring(0, 100), r.substring(900, 1100).toString());
+    assertEquals(a, new Rope().concat(new Rope(a)).toString());
+    assertEquals(a, new Rope(a).concat(new Rope()).toString());
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void charAtOutOfRange() {
+    new Rope("abc").charAt(3);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void insertOutOfRange() {
+    new Rope("abc").insert(4, "d");
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void substringOutOfRange() {
+    new Rope("abc").substring(2, 1);
+  }
+
+  static String text(Random random, int length) {
+    StringBuilder builder = new StringBuilder(length);
+    for (int n = 0; n < length; n++) {
+      builder.append((char) ('a' + random.nextInt(26)));
+    }
+    return builder.toString();
+  }
+}
@@ -83,53 +83,93 @@ public class FingerTreeTest {
 
   @Test
   public void concat() {
-    FingerTree<Elem.Size, Elem<String>> a =
-        new FingerTree.Empty<Elem.Size, Elem<String>>(Elem.Size.ZERO);
-    FingerTree<Elem.Size, Elem<String>> b =
-        new FingerTree.Empty<Elem.Size, Elem<String>>(Elem.Size.ZERO);
-    FingerTree.View<Elem.Size, Elem<String>> view;
-
-    a = a.cons(new Elem<String>("e"));
-    a = a.cons(new Elem<String>("d"));
-    a = a.cons(new Elem<String>("c"));
-    a = a.cons(new Elem<String>("b"));
-    a = a.cons(new Elem<String>("a"));
-
-    b = b.cons(new Elem<String>("4"));
-    b = b.cons(new Elem<String>("3"));
-    b = b.cons(new Elem<String>("2"));
-    b = b.cons(new Elem<String>("1"));
-
-    System.out.println("tree A");
-    view = a.viewL();
-    while (view != null) {
-      System.out.println(view.elem().v);
-      view = view.tree().viewL();
+    for (int a = 0; a < 50; a++) {
+      for (int b = 0; b < 50; b++) {
+        FingerTree<Elem.Size, Elem<Integer>> tree = FingerTree.concat(build(0, a), build(a, a + b));
+        assertEquals(a + b, tree.measure().size);
+        FingerTree.View<Elem.Size, Elem<Integer>> view = tree.viewL();
+        for (int n = 0; n < a + b; n++) {
+          assertEquals(n, (int) view.elem().v);
+          view = view.tree().viewL();
+        }
+        assertNull(view);
+        view = tree.viewR();
+        for (int n = a + b - 1; n >= 0; n--) {
+          assertEquals(n, (int) view.elem().v);
+          view = view.tree().viewR();
+        }
+        assertNull(view);
+      }
     }
+  }
 
-    System.out.println("tree B");
-    view = b.viewL();
-    while (view != null) {
-      System.out.println(view.elem().v);
-      view = view.tree().viewL();
+  @Test
+  public void split() {
+    for (int size = 0; size < 100; size++) {
+      FingerTree<Elem.Size, Elem<Integer>> tree = build(0, size);
+      for (int index = 0; index <= size + 1; index++) {
+        FingerTree.Split<Elem.Size, Elem<Integer>> split = tree.split(greaterThan(index));
+        int expected = Math.min(index, size);
+        assertRange(split.left(), 0, expected);
+        assertRange(split.right(), expected, size);
+        assertRange(tree.takeUntil(greaterThan(index)), 0, expected);
+        assertRange(tree.dropUntil(greaterThan(index)), expected, size);
+      }
     }
+  }
 
-    FingerTree<Elem.Size, Elem<String>> tree = FingerTree.concat(a, b);
-
-    System.out.println("joined");
-    view = tree.viewL();
-    while (view != null) {
-      System.out.println(view.elem().v);
-      view = view.tree().viewL();
+  @Test
+  public void search() {
+    assertNull(build(0, 0).search(greaterThan(0)));
+    for (int size = 1; size < 100; size++) {
+      FingerTree<Elem.Size, Elem<Integer>> tree = build(0, size);
+      for (int index = 0; index < size; index++) {
+        FingerTree.Search<Elem.Size, Elem<Integer>> search = tree.search(greaterThan(index));
+        assertEquals(index, (int) search.elem().v);
+        assertEquals(index, search.prefix().size);
+      }
+      assertNull(tree.search(greaterThan(size)));
     }
+  }
 
-    tree = FingerTree.concat(tree, tree);
+  @Test
+  public void measure() {
+    assertEquals(1000, build(0, 1000).measure().size);
+    assertSame(Elem.Size.of(3), Elem.Size.ONE.combine(Elem.Size.of(2)));
+    assertSame(Elem.Size.ONE, Elem.Size.ONE.combine(Elem.Size.ZERO));
+    assertEquals(1000, Elem.Size.of(999).combine(Elem.Size.ONE).size);
+    assertSame(Monoid.IntegerSum.valueOf(3),
+        Monoid.IntegerSum.valueOf(1).combine(Monoid.IntegerSum.valueOf(2)));
+    assertSame(Monoid.IntegerSum.UNIT, Monoid.IntegerSum.valueOf(0));
+    assertEquals(1000, Monoid.IntegerSum.valueOf(999).combine(Monoid.IntegerSum.valueOf(1)).intValue());
+    assertEquals(-1, Monoid.IntegerSum.valueOf(-1).intValue());
+  }
 
-    System.out.println("joined*joined");
-    view = tree.viewL();
-    while (view != null) {
-      System.out.println(view.elem().v);
+  static FingerTree.Predicate<Elem.Size> greaterThan(final int index) {
+    return new FingerTree.Predicate<Elem.Size>() {
+      @Override
+      public boolean test(Elem.Size measure) {
+        return measure.size > index;
+      }
+    };
+  }
+
+  static void assertRange(FingerTree<Elem.Size, Elem<Integer>> tree, int from, int to) {
+    assertEquals(to - from, tree.measure().size);
+    FingerTree.View<Elem.Size, Elem<Integer>> view = tree.viewL();
+    for (int n = from; n < to; n++) {
+      assertEquals(n, (int) view.elem().v);
       view = view.tree().viewL();
     }
+    assertNull(view);
+  }
+
+  static FingerTree<Elem.Size, Elem<Integer>> build(int from, int to) {
+    FingerTree<Elem.Size, Elem<Integer>> tree =
+        new FingerTree.Empty<Elem.Size, Elem<Integer>>(Elem.Size.ZERO);
+    for (int n = from; n < to; n++) {
+      tree = tree.snoc(new Elem<Integer>(n));
+    }
+    return tree;
   }
 }
@@ -0,0 +1,85 @@
+package collection.persistent.fingertree;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class IntervalTreeTest {
+  @Test
+  public void small() {
+    IntervalTree<String> tree = new IntervalTree<String>();
+    assertEquals(0, tree.size());
+    assertFalse(tree.overlaps(0, 100));
+    assertTrue(tree.stabbing(0).isEmpty());
+
+    tree = tree.insert(10, 20, "a").insert(5, 8, "b").insert(15, 30, "c").insert(40, 40, "d");
+    assertEquals(4, tree.size());
+    assertValues(tree.stabbing(7), "b");
+    assertValues(tree.stabbing(9));
+    assertValues(tree.stabbing(16), "a", "c");
+    assertValues(tree.stabbing(40), "d");
+    assertValues(tree.intersections(0, 10), "b", "a");
+    assertValues(tree.intersections(21, 39), "c");
+    assertValues(tree.intersections(31, 39));
+    assertTrue(tree.overlaps(8, 9));
+    assertFalse(tree.overlaps(31, 39));
+    assertFalse(tree.overlaps(41, 100));
+    IntervalTree.Bounds bounds = tree.stabbing(7).get(0).measure();
+    assertEquals(5, bounds.low());
+    assertEquals(8, bounds.high());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidInterval() {
+    new IntervalTree<String>().insert(2, 1, "x");
+  }
+
+  @Test
+  public void random() {
+    Random random = new Random(1);
+    List<int[]> expected = new ArrayList<int[]>();
+    IntervalTree<Integer> tree = new IntervalTree<Integer>();
+    List<IntervalTree<Integer>> versions = new ArrayList<IntervalTree<Integer>>();
+    for (int n = 0; n < 500; n++) {
+      int low = random.nextInt(1000);
+      int high = low + random.nextInt(50);
+      expected.add(new int[]{low, high, n});
+      tree = tree.insert(low, high, n);
+      versions.add(tree);
+    }
+    for (int q = 0; q < 1000; q++) {
+      int version = random.nextInt(versions.size());
+      int low = random.nextInt(1100) - 50;
+      int high = low + random.nextInt(20);
+      List<Integer> matches = new ArrayList<Integer>();
+      for (int n = 0; n <= version; n++) {
+        int[] interval = expected.get(n);
+        if (interval[0] <= high && interval[1] >= low) {
+          matches.add(interval[2]);
+        }
+      }
+      List<IntervalTree.Interval<Integer>> actual = versions.get(version).intersections(low, high);
+      assertEquals(matches.size(), actual.size());
+      List<Integer> values = new ArrayList<Integer>();
+      int last = Integer.MIN_VALUE;
+      for (IntervalTree.Interval<Integer> interval : actual) {
+        assertTrue(interval.low() >= last);
+        last = interval.low();
+        values.add(interval.value());
+      }
+      assertTrue(values.containsAll(matches));
+      assertEquals(!matches.isEmpty(), versions.get(version).overlaps(low, high));
+    }
+  }
+
+  static void assertValues(List<IntervalTree.Interval<String>> intervals, String... values) {
+    assertEquals(values.length, intervals.size());
+    for (int n = 0; n < values.length; n++) {
+      assertEquals(values[n], intervals.get(n).value());
+    }
+  }
+}
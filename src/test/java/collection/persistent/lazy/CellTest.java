@@ -97,4 +97,69 @@ public class CellTest {
     assertEquals("X", tail.tail().tail().value());
     assertEquals("X", tail.tail().tail().tail().value());
   }
+
+  @Test
+  public void deepConcat() {
+    // Left-nested concatenations, forcing the first tail goes through all of them.
+    Cell<Integer> c = new Cell<Integer>(0, null);
+    for (int n = 1; n < 100000; n++) {
+      c = Cell.concat(c, new Cell<Integer>(n, null));
+    }
+    for (int n = 0; n < 10; n++) {
+      assertEquals(n, (int) c.value());
+      c = c.tail();
+    }
+  }
+
+  @Test
+  public void longConcat() {
+    Cell<Integer> c = Cell.concat(
+        Cell.take(Cell.of(1), 5000000),
+        Cell.drop(Cell.take(Cell.of(2), 5000000), 0));
+    int sum = 0;
+    int count = 0;
+    while (c != null) {
+      sum += c.value();
+      count++;
+      c = c.tail();
+    }
+    assertEquals(10000000, count);
+    assertEquals(15000000, sum);
+  }
+
+  @Test
+  public void concurrent() throws Exception {
+    Cell<Integer> strict = null;
+    for (int n = 0; n < 1000; n++) {
+      strict = new Cell<Integer>(n, strict);
+    }
+    final Cell<Integer> lazy = Cell.concat(strict, Cell.reverse(strict));
+    final Cell<?>[][] seen = new Cell<?>[4][2000];
+    Thread[] threads = new Thread[seen.length];
+    for (int t = 0; t < threads.length; t++) {
+      final Cell<?>[] cells = seen[t];
+      threads[t] = new Thread() {
+        @Override
+        public void run() {
+          int n = 0;
+          for (Cell<Integer> c = lazy; c != null; c = c.tail()) {
+            cells[n++] = c;
+          }
+        }
+      };
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    // Every thread walked the same cells, whichever thread forced them.
+    for (int n = 0; n < 2000; n++) {
+      for (int t = 1; t < seen.length; t++) {
+        assertSame(seen[0][n], seen[t][n]);
+      }
+    }
+    assertFalse(lazy.isSuspended());
+  }
 }
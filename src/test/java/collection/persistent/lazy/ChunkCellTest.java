@@ -0,0 +1,41 @@
+package collection.persistent.lazy;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ChunkCellTest {
+  @Test
+  public void test() {
+    ChunkCell<String> strict =
+        new ChunkCell<String>(new Object[]{"1", "2", "x"}, 2,
+            new ChunkCell<String>(new Object[]{"3"}, 1,
+                null));
+
+    assertEquals(2, strict.size());
+    assertEquals("1", strict.get(0));
+    assertEquals("2", strict.get(1));
+    assertFalse(strict.isSuspended());
+    assertEquals("3", strict.tail().get(0));
+    assertNull(strict.tail().tail());
+
+    ChunkCell<String> lazy = ChunkCell.concat(strict, ChunkCell.reverse(strict));
+
+    assertEquals("1", lazy.get(0));
+    assertEquals("2", lazy.get(1));
+    assertTrue(lazy.isSuspended());
+    assertEquals("3", lazy.tail().get(0));
+    assertTrue(lazy.tail().isSuspended());
+    assertEquals("3", lazy.tail().tail().get(0));
+    assertFalse(lazy.tail().tail().isSuspended());
+    assertEquals("1", lazy.tail().tail().tail().get(0));
+    assertEquals("2", lazy.tail().tail().tail().get(1));
+    assertNull(lazy.tail().tail().tail().tail());
+    assertFalse(lazy.isSuspended());
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void getOutOfRange() {
+    new ChunkCell<String>(new Object[]{"1", "2"}, 1, null).get(1);
+  }
+}